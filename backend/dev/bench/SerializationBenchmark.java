@@ -0,0 +1,140 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.featureflag.dto.ApiResponse;
+import com.featureflag.dto.CompactEvaluationResponse;
+import com.featureflag.dto.EvaluationResponse;
+import com.featureflag.dto.EvaluationResponse.EvaluationDetail;
+import com.featureflag.enums.EvaluationReason;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares encode + decode cost and payload size of the JSON evaluation
+ * response against the compact CBOR/Smile layout served to binary callers.
+ *
+ * <pre>
+ * mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:$(cat target/classpath.txt)" dev/bench/SerializationBenchmark.java [flags] [seconds]
+ * </pre>
+ */
+public class SerializationBenchmark {
+
+    private static final TypeReference<ApiResponse<EvaluationResponse>> FULL = new TypeReference<>() {};
+    private static final TypeReference<ApiResponse<CompactEvaluationResponse>> COMPACT = new TypeReference<>() {};
+
+    public static void main(String[] args) throws Exception {
+        int flagCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 2;
+
+        ObjectMapper json = mapper(new JsonFactory());
+        ObjectMapper cbor = mapper(new CBORFactory());
+        ObjectMapper smile = mapper(new SmileFactory());
+
+        ApiResponse<EvaluationResponse> full = ApiResponse.success(fullResponse(flagCount));
+        ApiResponse<CompactEvaluationResponse> compact = ApiResponse.success(compactResponse(flagCount, true));
+        ApiResponse<CompactEvaluationResponse> compactKnown = ApiResponse.success(compactResponse(flagCount, false));
+
+        System.out.printf("%d flags, %ds per case%n%n", flagCount, seconds);
+        System.out.printf("%-32s %10s %14s%n", "case", "bytes", "ns/op (enc+dec)");
+        run("json full (current)", json, full, FULL, seconds);
+        run("cbor full", cbor, full, FULL, seconds);
+        run("smile full", smile, full, FULL, seconds);
+        run("json compact", json, compact, COMPACT, seconds);
+        run("cbor compact", cbor, compact, COMPACT, seconds);
+        run("smile compact", smile, compact, COMPACT, seconds);
+        run("cbor compact (knownVersion)", cbor, compactKnown, COMPACT, seconds);
+        run("smile compact (knownVersion)", smile, compactKnown, COMPACT, seconds);
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static <T> void run(String name, ObjectMapper mapper, T value, TypeReference<T> type,
+                                long seconds) throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+
+        // Warm up for as long as we measure, so the JIT has settled
+        long sink = loop(mapper, value, type, seconds * 1_000_000_000L)[1];
+
+        long[] measured = loop(mapper, value, type, seconds * 1_000_000_000L);
+        sink += measured[1];
+        System.out.printf("%-32s %10d %14d%s%n", name, encoded.length,
+                measured[0], sink == 42 ? " " : "");
+    }
+
+    // Returns {ns per op, checksum}
+    private static <T> long[] loop(ObjectMapper mapper, T value, TypeReference<T> type,
+                                   long durationNanos) throws Exception {
+        long ops = 0;
+        long checksum = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 100; i++) {
+                byte[] bytes = mapper.writeValueAsBytes(value);
+                T decoded = mapper.readValue(bytes, type);
+                checksum += bytes.length + (decoded != null ? 1 : 0);
+            }
+            ops += 100;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        return new long[] {elapsed / ops, checksum};
+    }
+
+    private static String flagName(int i) {
+        return "checkout_experiment_" + i + "_enabled";
+    }
+
+    private static EvaluationResponse fullResponse(int flagCount) {
+        Map<String, Boolean> flags = new HashMap<>();
+        Map<String, EvaluationDetail> details = new HashMap<>();
+        for (int i = 0; i < flagCount; i++) {
+            boolean result = i % 3 != 0;
+            flags.put(flagName(i), result);
+            EvaluationDetail.EvaluationDetailBuilder detail = EvaluationDetail.builder().result(result);
+            if (i % 4 == 0) {
+                detail.reason(EvaluationReason.RULE_MATCH)
+                        .matchedRuleId(UUID.randomUUID())
+                        .explanation("User email domain matches @company.com");
+            } else {
+                detail.reason(result ? EvaluationReason.ROLLOUT_INCLUDED : EvaluationReason.ROLLOUT_EXCLUDED)
+                        .explanation(String.format("User %s from 25%% rollout", result ? "included in" : "excluded"));
+            }
+            details.put(flagName(i), detail.build());
+        }
+        return EvaluationResponse.builder()
+                .flags(flags)
+                .details(details)
+                .snapshotVersion(1042)
+                .build();
+    }
+
+    private static CompactEvaluationResponse compactResponse(int flagCount, boolean withNames) {
+        byte[] bits = new byte[(flagCount + 7) / 8];
+        List<String> names = new ArrayList<>(flagCount);
+        for (int i = 0; i < flagCount; i++) {
+            if (i % 3 != 0) {
+                bits[i >> 3] |= (byte) (1 << (i & 7));
+            }
+            names.add(flagName(i));
+        }
+        return CompactEvaluationResponse.builder()
+                .snapshotVersion(1042)
+                .flagCount(flagCount)
+                .flagNames(withNames ? names : null)
+                .results(bits)
+                .build();
+    }
+}
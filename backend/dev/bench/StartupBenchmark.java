@@ -0,0 +1,118 @@
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time from process launch to the first successful evaluation
+ * (HTTP 200 from {@code GET /api/flags/evaluate}) for each command, over a
+ * number of runs. Each run is appended to
+ * {@code target/startup-benchmark.csv}. Postgres and Redis must already be
+ * up (docker-compose.dev.yml), and nothing else may listen on port 8080.
+ *
+ * <pre>
+ * mvn -q package -DskipTests && docker build -t featureflag-backend .
+ * java dev/bench/StartupBenchmark.java 5 \
+ *     "java -jar target/featureflag-manager-1.0.0.jar" \
+ *     "docker run --rm --network host featureflag-backend"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final URI EVALUATE = URI.create("http://localhost:8080/api/flags/evaluate?userId=startup-benchmark");
+    private static final Duration RUN_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path RESULTS = Path.of("target/startup-benchmark.csv");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: StartupBenchmark <runs> <command> [command...]");
+            System.exit(2);
+        }
+        int runs = Integer.parseInt(args[0]);
+        List<String> commands = Arrays.asList(args).subList(1, args.length);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+        List<long[]> results = new ArrayList<>();
+        for (String command : commands) {
+            long[] millis = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                awaitPortFree(client);
+                millis[run] = measure(client, command);
+                System.out.printf("%-60s run %d: %6d ms%n", command, run + 1, millis[run]);
+                record(command, run + 1, millis[run]);
+            }
+            results.add(millis);
+        }
+
+        System.out.printf("%n%-60s %8s %8s %8s%n", "command", "min", "median", "max");
+        for (int i = 0; i < commands.size(); i++) {
+            long[] millis = results.get(i).clone();
+            Arrays.sort(millis);
+            System.out.printf("%-60s %8d %8d %8d%n", commands.get(i),
+                    millis[0], millis[millis.length / 2], millis[millis.length - 1]);
+        }
+    }
+
+    private static long measure(HttpClient client, String command) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder("sh", "-c", command)
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target/startup-benchmark.log").toFile())
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(EVALUATE).timeout(Duration.ofSeconds(5)).GET().build();
+            while (System.nanoTime() - start < RUN_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Exited with " + process.exitValue()
+                            + " before serving; see target/startup-benchmark.log");
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException("No successful evaluation within " + RUN_TIMEOUT);
+        } finally {
+            // sh does not forward signals, so stop its children (java, or docker run) directly
+            process.descendants().forEach(ProcessHandle::destroy);
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    // A previous run may still be shutting down
+    private static void awaitPortFree(HttpClient client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(EVALUATE).timeout(Duration.ofSeconds(1)).GET().build();
+        for (int i = 0; i < 300; i++) {
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (ConnectException e) {
+                return;
+            } catch (IOException e) {
+                // Still answering, or half shut down
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Port 8080 is still in use");
+    }
+
+    private static void record(String command, int run, long millis) throws IOException {
+        Files.createDirectories(RESULTS.getParent());
+        String line = String.format("%s,\"%s\",%d,%d%n", Instant.now(), command.replace("\"", "\"\""), run, millis);
+        Files.writeString(RESULTS, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
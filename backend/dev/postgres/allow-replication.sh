@@ -0,0 +1,3 @@
+#!/bin/sh
+# Lets the optional dev replica (docker-compose.dev.yml, profile "replica") stream from this instance
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,142 @@
+package com.featureflag.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflag.dto.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sheds load before it reaches the thread, connection and Redis pools.
+ * Evaluation and analytics endpoints each have their own adaptive
+ * concurrency limit, so a busy dashboard cannot starve evaluations.
+ * Single-flag evaluations may use the whole evaluation limit; all-flags
+ * evaluations only part of it, so they are shed first.
+ *
+ * <p>Rejections are immediate: low-priority requests get 429, single-flag
+ * evaluations 503, both with a {@code Retry-After} hint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${featureflag.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${featureflag.admission.evaluation.initial-limit:50}")
+    private int evaluationInitialLimit;
+
+    @Value("${featureflag.admission.evaluation.min-limit:8}")
+    private int evaluationMinLimit;
+
+    @Value("${featureflag.admission.evaluation.max-limit:180}")
+    private int evaluationMaxLimit;
+
+    @Value("${featureflag.admission.analytics.initial-limit:8}")
+    private int analyticsInitialLimit;
+
+    @Value("${featureflag.admission.analytics.min-limit:2}")
+    private int analyticsMinLimit;
+
+    @Value("${featureflag.admission.analytics.max-limit:12}")
+    private int analyticsMaxLimit;
+
+    // Share of the evaluation limit all-flags requests may occupy
+    @Value("${featureflag.admission.bulk-share:0.8}")
+    private double bulkShare;
+
+    private ConcurrencyLimiter evaluationLimiter;
+    private ConcurrencyLimiter analyticsLimiter;
+
+    @PostConstruct
+    public void init() {
+        evaluationLimiter = new ConcurrencyLimiter("evaluation",
+                evaluationInitialLimit, evaluationMinLimit, evaluationMaxLimit, meterRegistry);
+        analyticsLimiter = new ConcurrencyLimiter("analytics",
+                analyticsInitialLimit, analyticsMinLimit, analyticsMaxLimit, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Admission admission = classify(request);
+        ConcurrencyLimiter limiter = admission.analytics() ? analyticsLimiter : evaluationLimiter;
+        double share = admission.highPriority() ? 1.0 : bulkShare;
+
+        if (!limiter.tryAcquire(share)) {
+            reject(response, limiter, admission.highPriority() && !admission.analytics());
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(start);
+        }
+    }
+
+    public Map<String, Object> getLimiterStates() {
+        Map<String, Object> states = new LinkedHashMap<>();
+        for (ConcurrencyLimiter limiter : new ConcurrencyLimiter[]{evaluationLimiter, analyticsLimiter}) {
+            states.put(limiter.getName(), Map.of("limit", limiter.getLimit(), "inflight", limiter.getInflight()));
+        }
+        return states;
+    }
+
+    private static Admission classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/analytics/live")) {
+            // Long-lived streams fed from memory; capped by featureflag.analytics.live.max-subscribers
+            return null;
+        }
+        if (PATHS.match("/api/flags/evaluate/*", path)) {
+            return new Admission(false, true);
+        }
+        if (path.equals("/api/flags/evaluate")) {
+            return new Admission(false, false);
+        }
+        if (PATHS.match("/api/flags/*/analytics/**", path) || PATHS.match("/api/flags/analytics/**", path)) {
+            return new Admission(true, true);
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, ConcurrencyLimiter limiter, boolean overloaded)
+            throws IOException {
+        HttpStatus status = overloaded ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many concurrent " + limiter.getName() + " requests, retry later"));
+    }
+
+    private record Admission(boolean analytics, boolean highPriority) {}
+}
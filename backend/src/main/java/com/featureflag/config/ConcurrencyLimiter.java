@@ -0,0 +1,142 @@
+package com.featureflag.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on concurrent requests, in the style of a gradient limiter.
+ * Latency is averaged over short windows and compared to the lowest recent
+ * window average, the best estimate of unloaded latency: while they stay
+ * within a tolerance the limit grows by about its square root per window,
+ * and when latency climbs (requests queueing on threads, pools or the
+ * database) the limit shrinks in proportion. The limit only grows while it
+ * is actually being used.
+ */
+class ConcurrencyLimiter {
+
+    // A window closes after this long, once it has enough samples to average
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    // The baseline creeps up by this factor per window so it can follow a lasting
+    // change in unloaded latency (doubles in about six minutes)
+    private static final double BASELINE_DRIFT = 1.0005;
+    // Window latency may exceed the baseline by this much before the limit drops
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    // Fractional limit the adjustments work on, so small steps add up; guarded by this
+    private double estimatedLimit;
+
+    // Window state, guarded by this
+    private long windowStartNanos = System.nanoTime();
+    private long windowRttNanos;
+    private int windowSamples;
+    private int windowMaxInflight;
+    private double baselineRttNanos;
+    private volatile double shortRttNanos;
+
+    private final Counter rejectedHigh;
+    private final Counter rejectedLow;
+
+    ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimatedLimit = limit;
+
+        Gauge.builder("featureflag.admission.limit", this, l -> l.limit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("featureflag.admission.inflight", inflight, AtomicInteger::get)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        this.rejectedHigh = meterRegistry.counter("featureflag.admission.rejected", "limiter", name, "priority", "high");
+        this.rejectedLow = meterRegistry.counter("featureflag.admission.rejected", "limiter", name, "priority", "low");
+    }
+
+    /**
+     * Admits a request if fewer than {@code share} of the current limit are in
+     * flight. Low-priority callers get a share below 1, so some capacity is
+     * always left for high-priority ones. Admitted callers must call
+     * {@link #release(long)}.
+     */
+    boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                (share < 1.0 ? rejectedLow : rejectedHigh).increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long startNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        long now = System.nanoTime();
+        synchronized (this) {
+            windowRttNanos += now - startNanos;
+            windowSamples++;
+            windowMaxInflight = Math.max(windowMaxInflight, inflightBefore);
+            if (windowSamples >= MIN_WINDOW_SAMPLES && now - windowStartNanos >= WINDOW_NANOS) {
+                adjust(now);
+            }
+        }
+    }
+
+    // Caller holds the monitor
+    private void adjust(long now) {
+        double shortRtt = (double) windowRttNanos / windowSamples;
+        shortRttNanos = shortRtt;
+        baselineRttNanos = baselineRttNanos == 0
+                ? shortRtt
+                : Math.min(shortRtt, baselineRttNanos * BASELINE_DRIFT);
+
+        double current = estimatedLimit;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRttNanos / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (gradient == 1.0 && windowMaxInflight < current / 2) {
+            // Not using the limit, so latency says nothing about whether more would be safe
+            target = current;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+
+        windowStartNanos = now;
+        windowRttNanos = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+    }
+
+    /** Suggested back-off for rejected callers: roughly the time for the current queue to drain. */
+    long retryAfterSeconds() {
+        double seconds = shortRttNanos / 1e9 * Math.max(1, inflight.get()) / Math.max(1, limit);
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,163 @@
+package com.featureflag.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to a healthy replica and
+ * everything else to the primary. Must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy} so the connection is fetched after
+ * the transaction's read-only flag has been set.
+ *
+ * <p>Replicas are probed in the background; one that is unreachable, not
+ * streaming from the primary, or lagging more than {@code maxLagMs} behind
+ * it is skipped until it recovers, and reads fall back to the primary when
+ * none are usable.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+    // Zero when the replica has replayed everything it received (an idle primary is not "lag").
+    // NULL when it is not streaming: replay then catches up with the last WAL received, and
+    // the LSNs match however far behind the primary it has fallen
+    private static final String LAG_QUERY = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+        END
+        """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final long healthCheckIntervalMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    private final Counter replicaReads;
+    private final Counter primaryFallbackReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    long maxLagMs, long healthCheckIntervalMs, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+
+        this.replicaReads = meterRegistry.counter("featureflag.datasource.reads", "target", "replica");
+        this.primaryFallbackReads = meterRegistry.counter("featureflag.datasource.reads", "target", "primary");
+        for (Replica replica : this.replicas) {
+            Gauge.builder("featureflag.datasource.replica.lag.ms", replica, r -> r.lagMs)
+                    .tag("replica", replica.dataSource.getPoolName())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("featureflag.datasource.replicas.healthy", this.replicas,
+                        list -> list.stream().filter(r -> r.healthy).count())
+                .register(meterRegistry);
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts probing replicas. The first check runs in the background too, so
+     * an unreachable replica cannot hold up startup for a connection timeout;
+     * until it completes, reads go to the primary.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (!replicas.isEmpty()) {
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                    0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    private DataSource determineTarget() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary;
+        }
+
+        // Round-robin over healthy replicas
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                replicaReads.increment();
+                return replica.dataSource;
+            }
+        }
+        primaryFallbackReads.increment();
+        return primary;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection conn = replica.dataSource.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lagMs = rs.getDouble(1);
+                // Not streaming: its lag is unknown and growing
+                replica.lagMs = rs.wasNull() ? Double.NaN : lagMs;
+                replica.healthy = !rs.wasNull() && lagMs <= maxLagMs;
+            } catch (Exception e) {
+                replica.lagMs = Double.NaN;
+                replica.healthy = false;
+            }
+            if (wasHealthy != replica.healthy) {
+                log.warn("Replica {} is now {} (lag {} ms)", replica.dataSource.getPoolName(),
+                        replica.healthy ? "in rotation" : "out of rotation", replica.lagMs);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        healthChecker.shutdownNow();
+        replicas.forEach(r -> r.dataSource.close());
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagMs = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
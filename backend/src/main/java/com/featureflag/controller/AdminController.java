@@ -0,0 +1,28 @@
+package com.featureflag.controller;
+
+import com.featureflag.dto.ApiResponse;
+import com.featureflag.dto.HeavyHittersResponse;
+import com.featureflag.service.HeavyHitterTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private final HeavyHitterTracker heavyHitterTracker;
+
+    // Hottest flags, users and flag/user pairs seen by this node
+    @GetMapping("/heavy-hitters")
+    public ResponseEntity<ApiResponse<HeavyHittersResponse>> getHeavyHitters(
+            @RequestParam(defaultValue = "5") int windowMinutes,
+            @RequestParam(defaultValue = "20") int limit) {
+        HeavyHittersResponse heavyHitters = heavyHitterTracker.getHeavyHitters(windowMinutes, limit);
+        return ResponseEntity.ok(ApiResponse.success(heavyHitters));
+    }
+}
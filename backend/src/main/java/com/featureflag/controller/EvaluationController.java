@@ -1,10 +1,16 @@
 package com.featureflag.controller;
 
+import com.featureflag.config.WebConfig;
 import com.featureflag.dto.*;
+import com.featureflag.entity.Environment;
+import com.featureflag.service.EnvironmentService;
 import com.featureflag.service.FlagEvaluationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,47 +22,94 @@ import org.springframework.web.bind.annotation.*;
 public class EvaluationController {
 
     private final FlagEvaluationService evaluationService;
+    private final EnvironmentService environmentService;
 
+    // CBOR/Smile callers get the compact bitset layout; everyone else gets the JSON maps.
+    // Bodies can be sent in either binary format too, via Content-Type.
+    // Evaluations run against one environment's snapshot, the default one unless named
     @PostMapping("/evaluate")
-    public ResponseEntity<ApiResponse<EvaluationResponse>> evaluateFlags(
-            @Valid @RequestBody EvaluateRequest request) {
+    public ResponseEntity<? extends ApiResponse<?>> evaluateFlags(
+            @Valid @RequestBody EvaluateRequest request,
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) Long knownVersion,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Environment target = environmentService.resolve(environment);
         UserContext userContext = UserContext.builder()
                 .userId(request.getUserId())
                 .email(request.getUserEmail())
                 .country(request.getCountry())
+                .attributes(request.getAttributes())
                 .build();
 
-        EvaluationResponse response = evaluationService.evaluateAllFlags(userContext);
+        if (acceptsBinary(accept)) {
+            CompactEvaluationResponse response = evaluationService.evaluateAllFlagsCompact(target, userContext, knownVersion);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        }
+        EvaluationResponse response = evaluationService.evaluateAllFlags(target, userContext);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
     @PostMapping("/evaluate/{flagName}")
     public ResponseEntity<ApiResponse<EvaluationResponse>> evaluateSingleFlag(
             @PathVariable String flagName,
-            @Valid @RequestBody EvaluateRequest request) {
+            @Valid @RequestBody EvaluateRequest request,
+            @RequestParam(required = false) String environment) {
+        Environment target = environmentService.resolve(environment);
         UserContext userContext = UserContext.builder()
                 .userId(request.getUserId())
                 .email(request.getUserEmail())
                 .country(request.getCountry())
+                .attributes(request.getAttributes())
                 .build();
 
-        EvaluationResponse response = evaluationService.evaluateSingleFlag(flagName, userContext);
+        EvaluationResponse response = evaluationService.evaluateSingleFlag(target, flagName, userContext);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
     // Simple GET endpoint for quick evaluation
     @GetMapping("/evaluate")
-    public ResponseEntity<ApiResponse<EvaluationResponse>> evaluateFlagsGet(
+    public ResponseEntity<? extends ApiResponse<?>> evaluateFlagsGet(
             @RequestParam String userId,
             @RequestParam(required = false) String email,
-            @RequestParam(required = false) String country) {
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) Long knownVersion,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Environment target = environmentService.resolve(environment);
         UserContext userContext = UserContext.builder()
                 .userId(userId)
                 .email(email)
                 .country(country)
                 .build();
 
-        EvaluationResponse response = evaluationService.evaluateAllFlags(userContext);
+        if (acceptsBinary(accept)) {
+            CompactEvaluationResponse response = evaluationService.evaluateAllFlagsCompact(target, userContext, knownVersion);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        }
+        EvaluationResponse response = evaluationService.evaluateAllFlags(target, userContext);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
+
+    // Only an explicit CBOR/Smile Accept counts; wildcards keep the JSON layout
+    private static boolean acceptsBinary(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.isWildcardType() || type.isWildcardSubtype()) {
+                    continue;
+                }
+                if (MediaType.APPLICATION_JSON.includes(type)) {
+                    return false;
+                }
+                if (MediaType.APPLICATION_CBOR.includes(type) || WebConfig.APPLICATION_SMILE.includes(type)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
 }
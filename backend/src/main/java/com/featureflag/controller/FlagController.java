@@ -3,12 +3,22 @@ package com.featureflag.controller;
 import com.featureflag.dto.*;
 import com.featureflag.service.AnalyticsService;
 import com.featureflag.service.FlagService;
+import com.featureflag.service.LiveAnalyticsService;
+import com.featureflag.service.RuleImportService;
+import com.featureflag.service.ScheduledRolloutService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,20 +32,50 @@ public class FlagController {
 
     private final FlagService flagService;
     private final AnalyticsService analyticsService;
+    private final LiveAnalyticsService liveAnalyticsService;
+    private final RuleImportService ruleImportService;
+    private final ScheduledRolloutService scheduledRolloutService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<FlagResponse>> createFlag(
+            @RequestParam(required = false) String environment,
             @Valid @RequestBody CreateFlagRequest request) {
-        FlagResponse flag = flagService.createFlag(request);
+        FlagResponse flag = flagService.createFlag(environment, request);
         return ResponseEntity.ok(ApiResponse.success("Flag created", flag));
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FlagResponse>>> getAllFlags() {
-        List<FlagResponse> flags = flagService.getAllFlags();
+    public ResponseEntity<ApiResponse<List<FlagResponse>>> getAllFlags(
+            @RequestParam(required = false) String environment) {
+        List<FlagResponse> flags = flagService.getAllFlags(environment);
         return ResponseEntity.ok(ApiResponse.success(flags));
     }
 
+    // Keyset-paginated listing: pass nextCursor from the previous page to continue
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<FlagPageResponse>> getFlagPage(
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String createdBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince,
+            @RequestParam(required = false) String search) {
+        FlagPageRequest request = FlagPageRequest.builder()
+                .environment(environment)
+                .cursor(cursor)
+                .limit(limit)
+                .enabled(enabled)
+                .namePrefix(namePrefix)
+                .createdBy(createdBy)
+                .updatedSince(updatedSince)
+                .search(search)
+                .build();
+        FlagPageResponse page = flagService.getFlagPage(request);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<FlagResponse>> getFlag(@PathVariable UUID id) {
         FlagResponse flag = flagService.getFlag(id);
@@ -43,8 +83,10 @@ public class FlagController {
     }
 
     @GetMapping("/name/{name}")
-    public ResponseEntity<ApiResponse<FlagResponse>> getFlagByName(@PathVariable String name) {
-        FlagResponse flag = flagService.getFlagByName(name);
+    public ResponseEntity<ApiResponse<FlagResponse>> getFlagByName(
+            @PathVariable String name,
+            @RequestParam(required = false) String environment) {
+        FlagResponse flag = flagService.getFlagByName(environment, name);
         return ResponseEntity.ok(ApiResponse.success(flag));
     }
 
@@ -64,12 +106,84 @@ public class FlagController {
         return ResponseEntity.ok(ApiResponse.success("Flag toggled"));
     }
 
+    // Bulk operations on flags of one environment selected by ids or namePrefix, each in one transaction
+    @PatchMapping("/bulk/toggle")
+    public ResponseEntity<ApiResponse<BulkFlagResponse>> bulkToggle(
+            @RequestParam(required = false) String environment,
+            @Valid @RequestBody BulkFlagRequest request) {
+        BulkFlagResponse result = flagService.bulkToggle(environment, request);
+        return ResponseEntity.ok(ApiResponse.success("Flags toggled", result));
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<ApiResponse<BulkFlagResponse>> bulkUpdate(
+            @RequestParam(required = false) String environment,
+            @Valid @RequestBody BulkFlagRequest request) {
+        BulkFlagResponse result = flagService.bulkUpdate(environment, request);
+        return ResponseEntity.ok(ApiResponse.success("Flags updated", result));
+    }
+
+    // POST rather than DELETE, since the selection travels in the body
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<ApiResponse<BulkFlagResponse>> bulkDelete(
+            @RequestParam(required = false) String environment,
+            @Valid @RequestBody BulkFlagRequest request) {
+        BulkFlagResponse result = flagService.bulkDelete(environment, request);
+        return ResponseEntity.ok(ApiResponse.success("Flags deleted", result));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteFlag(@PathVariable UUID id) {
         flagService.deleteFlag(id);
         return ResponseEntity.ok(ApiResponse.success("Flag deleted"));
     }
 
+    @PutMapping("/{id}/variants")
+    public ResponseEntity<ApiResponse<FlagResponse>> setVariants(
+            @PathVariable UUID id,
+            @Valid @RequestBody SetVariantsRequest request) {
+        FlagResponse flag = flagService.setVariants(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Variants updated", flag));
+    }
+
+    // Prerequisite endpoints
+    @PutMapping("/{flagId}/prerequisites/{prerequisiteId}")
+    public ResponseEntity<ApiResponse<FlagResponse>> addPrerequisite(
+            @PathVariable UUID flagId,
+            @PathVariable UUID prerequisiteId) {
+        FlagResponse flag = flagService.addPrerequisite(flagId, prerequisiteId);
+        return ResponseEntity.ok(ApiResponse.success("Prerequisite added", flag));
+    }
+
+    @DeleteMapping("/{flagId}/prerequisites/{prerequisiteId}")
+    public ResponseEntity<ApiResponse<FlagResponse>> removePrerequisite(
+            @PathVariable UUID flagId,
+            @PathVariable UUID prerequisiteId) {
+        FlagResponse flag = flagService.removePrerequisite(flagId, prerequisiteId);
+        return ResponseEntity.ok(ApiResponse.success("Prerequisite removed", flag));
+    }
+
+    // Scheduled rollout endpoints
+    @PostMapping("/{flagId}/schedule")
+    public ResponseEntity<ApiResponse<List<ScheduledRolloutResponse>>> scheduleRollout(
+            @PathVariable UUID flagId,
+            @Valid @RequestBody ScheduleRolloutRequest request) {
+        List<ScheduledRolloutResponse> schedule = scheduledRolloutService.schedule(flagId, request);
+        return ResponseEntity.ok(ApiResponse.success("Rollout scheduled", schedule));
+    }
+
+    @GetMapping("/{flagId}/schedule")
+    public ResponseEntity<ApiResponse<List<ScheduledRolloutResponse>>> getSchedule(@PathVariable UUID flagId) {
+        List<ScheduledRolloutResponse> schedule = scheduledRolloutService.getSchedule(flagId);
+        return ResponseEntity.ok(ApiResponse.success(schedule));
+    }
+
+    @DeleteMapping("/schedule/{scheduleId}")
+    public ResponseEntity<ApiResponse<Void>> cancelScheduledRollout(@PathVariable UUID scheduleId) {
+        scheduledRolloutService.cancel(scheduleId);
+        return ResponseEntity.ok(ApiResponse.success("Scheduled rollout cancelled"));
+    }
+
     // Rules endpoints
     @PostMapping("/{flagId}/rules")
     public ResponseEntity<ApiResponse<RuleResponse>> addRule(
@@ -79,6 +193,33 @@ public class FlagController {
         return ResponseEntity.ok(ApiResponse.success("Rule added", rule));
     }
 
+    // Bulk import: JSON array or CSV body, or a CSV file upload
+    @PostMapping(value = "/{flagId}/rules/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<RuleImportResponse>> importRulesJson(
+            @PathVariable UUID flagId,
+            InputStream body) throws IOException {
+        RuleImportResponse result = ruleImportService.importJson(flagId, body);
+        return ResponseEntity.ok(ApiResponse.success("Rules imported", result));
+    }
+
+    @PostMapping(value = "/{flagId}/rules/import", consumes = "text/csv")
+    public ResponseEntity<ApiResponse<RuleImportResponse>> importRulesCsv(
+            @PathVariable UUID flagId,
+            InputStream body) throws IOException {
+        RuleImportResponse result = ruleImportService.importCsv(flagId, body);
+        return ResponseEntity.ok(ApiResponse.success("Rules imported", result));
+    }
+
+    @PostMapping(value = "/{flagId}/rules/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<RuleImportResponse>> importRulesFile(
+            @PathVariable UUID flagId,
+            @RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream body = file.getInputStream()) {
+            RuleImportResponse result = ruleImportService.importCsv(flagId, body);
+            return ResponseEntity.ok(ApiResponse.success("Rules imported", result));
+        }
+    }
+
     @GetMapping("/{flagId}/rules")
     public ResponseEntity<ApiResponse<List<RuleResponse>>> getRules(@PathVariable UUID flagId) {
         List<RuleResponse> rules = flagService.getRules(flagId);
@@ -107,4 +248,22 @@ public class FlagController {
         AnalyticsResponse analytics = analyticsService.getAnalytics(id, hours);
         return ResponseEntity.ok(ApiResponse.success(analytics));
     }
+
+    @GetMapping("/analytics/summary")
+    public ResponseEntity<ApiResponse<AnalyticsSummaryResponse>> getAnalyticsSummary(
+            @RequestParam(required = false) String environment,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(ApiResponse.success(analyticsService.getSummary(environment, hours)));
+    }
+
+    // Live per-second counts as server-sent events
+    @GetMapping(value = "/{id}/analytics/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalytics(@PathVariable UUID id) {
+        return liveAnalyticsService.subscribe(id);
+    }
+
+    @GetMapping(value = "/analytics/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllAnalytics() {
+        return liveAnalyticsService.subscribeAll();
+    }
 }
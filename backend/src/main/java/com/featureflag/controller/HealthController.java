@@ -1,7 +1,9 @@
 package com.featureflag.controller;
 
+import com.featureflag.config.AdmissionControlFilter;
 import com.featureflag.dto.ApiResponse;
 import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.service.FlagCacheService;
 import lombok.RequiredArgsConstructor;
 import org.redisson.api.RedissonClient;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,8 @@ public class HealthController {
     private final DataSource dataSource;
     private final RedissonClient redissonClient;
     private final FeatureFlagRepository flagRepository;
+    private final FlagCacheService cacheService;
+    private final AdmissionControlFilter admissionControlFilter;
 
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> healthCheck() {
@@ -56,6 +60,16 @@ public class HealthController {
             health.put("stats_error", e.getMessage());
         }
 
+        health.put("snapshot", Map.of(
+                "versions", cacheService.getSnapshotVersions(),
+                "reconciled", cacheService.isReconciled()
+        ));
+        health.put("circuits", Map.of(
+                "redis", cacheService.getRedisCircuitState(),
+                "jdbc", cacheService.getJdbcCircuitState()
+        ));
+        health.put("admission", admissionControlFilter.getLimiterStates());
+
         boolean isHealthy = "UP".equals(health.get("database")) && "UP".equals(health.get("redis"));
         health.put("status", isHealthy ? "UP" : "DEGRADED");
 
@@ -64,6 +78,11 @@ public class HealthController {
 
     @GetMapping("/ready")
     public ResponseEntity<String> readinessCheck() {
+        // A node holding a snapshot (even one restored from disk) can serve evaluations
+        if (cacheService.hasSnapshot()) {
+            return ResponseEntity.ok("OK");
+        }
+
         try (Connection conn = dataSource.getConnection()) {
             if (conn.isValid(5)) {
                 return ResponseEntity.ok("OK");
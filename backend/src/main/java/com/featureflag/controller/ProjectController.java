@@ -0,0 +1,51 @@
+package com.featureflag.controller;
+
+import com.featureflag.dto.*;
+import com.featureflag.service.EnvironmentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/projects")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ProjectController {
+
+    private final EnvironmentService environmentService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ProjectResponse>>> getProjects() {
+        List<ProjectResponse> projects = environmentService.getProjects();
+        return ResponseEntity.ok(ApiResponse.success(projects));
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ProjectResponse>> createProject(
+            @Valid @RequestBody CreateProjectRequest request) {
+        ProjectResponse project = environmentService.createProject(request);
+        return ResponseEntity.ok(ApiResponse.success("Project created", project));
+    }
+
+    @PostMapping("/{projectKey}/environments")
+    public ResponseEntity<ApiResponse<EnvironmentResponse>> createEnvironment(
+            @PathVariable String projectKey,
+            @Valid @RequestBody CreateEnvironmentRequest request) {
+        EnvironmentResponse environment = environmentService.createEnvironment(projectKey, request);
+        return ResponseEntity.ok(ApiResponse.success("Environment created", environment));
+    }
+
+    // Only an environment without flags can be deleted
+    @DeleteMapping("/{projectKey}/environments/{environmentKey}")
+    public ResponseEntity<ApiResponse<Void>> deleteEnvironment(
+            @PathVariable String projectKey,
+            @PathVariable String environmentKey) {
+        environmentService.deleteEnvironment(projectKey, environmentKey);
+        return ResponseEntity.ok(ApiResponse.success("Environment deleted"));
+    }
+}
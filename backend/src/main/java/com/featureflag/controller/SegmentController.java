@@ -0,0 +1,63 @@
+package com.featureflag.controller;
+
+import com.featureflag.dto.*;
+import com.featureflag.service.SegmentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/segments")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SegmentController {
+
+    private final SegmentService segmentService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<SegmentResponse>> createSegment(
+            @Valid @RequestBody CreateSegmentRequest request) {
+        SegmentResponse segment = segmentService.createSegment(request);
+        return ResponseEntity.ok(ApiResponse.success("Segment created", segment));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SegmentResponse>>> getAllSegments() {
+        List<SegmentResponse> segments = segmentService.getAllSegments();
+        return ResponseEntity.ok(ApiResponse.success(segments));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<SegmentResponse>> getSegment(@PathVariable UUID id) {
+        SegmentResponse segment = segmentService.getSegment(id);
+        return ResponseEntity.ok(ApiResponse.success(segment));
+    }
+
+    @PostMapping("/{id}/members")
+    public ResponseEntity<ApiResponse<SegmentResponse>> addMembers(
+            @PathVariable UUID id,
+            @Valid @RequestBody SegmentMembersRequest request) {
+        SegmentResponse segment = segmentService.addMembers(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Members added", segment));
+    }
+
+    @DeleteMapping("/{id}/members")
+    public ResponseEntity<ApiResponse<SegmentResponse>> removeMembers(
+            @PathVariable UUID id,
+            @Valid @RequestBody SegmentMembersRequest request) {
+        SegmentResponse segment = segmentService.removeMembers(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Members removed", segment));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteSegment(@PathVariable UUID id) {
+        segmentService.deleteSegment(id);
+        return ResponseEntity.ok(ApiResponse.success("Segment deleted"));
+    }
+}
@@ -22,9 +22,19 @@ public class AnalyticsResponse {
     private long enabledCount;
     private long disabledCount;
     private double enabledPercentage;
+    // Approximate (HyperLogLog) distinct users over the window, hour-aligned
+    private long uniqueUsers;
+    private long uniqueEnabledUsers;
+    // Start of the hours the unique-user counts cover; later than the window for windows
+    // longer than unique-user retention (featureflag.analytics.unique-users.retention-days)
+    private Instant uniqueUsersSince;
     private int configuredRolloutPercentage;
+    // Bucket size of evaluationsOverTime: MINUTE, HOUR or DAY depending on the window
+    private String resolution;
     private List<TimeSeriesPoint> evaluationsOverTime;
     private Map<String, Long> evaluationsByReason;
+    // Empty for boolean flags
+    private Map<String, Long> evaluationsByVariant;
 
     @Data
     @Builder
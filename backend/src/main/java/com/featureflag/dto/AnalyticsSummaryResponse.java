@@ -0,0 +1,41 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsSummaryResponse {
+
+    private String environment;
+    private int hours;
+    private Instant since;
+    // Tier the totals were read from; lastEvaluatedAt is accurate to its bucket size
+    private String resolution;
+    private Instant generatedAt;
+    private List<FlagSummary> flags;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FlagSummary {
+        private UUID flagId;
+        private String flagName;
+        private boolean enabled;
+        private long totalEvaluations;
+        private long enabledCount;
+        private long disabledCount;
+        private double enabledPercentage;
+        // Null if the flag was not evaluated in the window
+        private Instant lastEvaluatedAt;
+    }
+}
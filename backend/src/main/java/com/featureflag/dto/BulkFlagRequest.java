@@ -0,0 +1,35 @@
+package com.featureflag.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects flags for a bulk operation, by ID list or by name prefix (exactly
+ * one of the two), and carries the changes for bulk toggles and updates.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkFlagRequest {
+
+    @Size(max = 1000, message = "A bulk operation cannot name more than 1000 flags")
+    private List<UUID> ids;
+
+    @Size(max = 100, message = "Name prefix cannot exceed 100 characters")
+    private String namePrefix;
+
+    private Boolean enabled;
+
+    @Min(value = 0, message = "Rollout percentage must be at least 0")
+    @Max(value = 100, message = "Rollout percentage cannot exceed 100")
+    private Integer rolloutPercentage;
+}
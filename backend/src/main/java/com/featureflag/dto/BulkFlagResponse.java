@@ -0,0 +1,19 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkFlagResponse {
+
+    // Flags actually changed; selected flags already in the requested state are left alone
+    private int affected;
+    private List<String> flagNames;
+}
@@ -0,0 +1,31 @@
+package com.featureflag.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * All-flags result for CBOR/Smile callers. Bit {@code i} of {@code results}
+ * (least significant bit first within each byte) is the result for flag
+ * {@code i}. Flag order is fixed for a snapshot version, so {@code flagNames}
+ * is left out when the caller already holds it for {@code snapshotVersion}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactEvaluationResponse {
+
+    // Snapshot versions count per environment, so a known version only applies to this one
+    private String environment;
+    private long snapshotVersion;
+    private boolean stale;
+    private int flagCount;
+    private List<String> flagNames;
+    private byte[] results;
+}
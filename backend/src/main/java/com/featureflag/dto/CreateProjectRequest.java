@@ -0,0 +1,25 @@
+package com.featureflag.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateProjectRequest {
+
+    @NotBlank(message = "Project key is required")
+    @Size(min = 2, max = 50, message = "Project key must be between 2 and 50 characters")
+    @Pattern(regexp = "^[a-z][a-z0-9-]*$", message = "Project key must start with lowercase letter and contain only lowercase letters, numbers, and hyphens")
+    private String key;
+
+    @NotBlank(message = "Project name is required")
+    @Size(max = 100, message = "Project name cannot exceed 100 characters")
+    private String name;
+}
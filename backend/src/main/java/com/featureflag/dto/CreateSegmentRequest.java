@@ -0,0 +1,28 @@
+package com.featureflag.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateSegmentRequest {
+
+    @NotBlank(message = "Segment name is required")
+    @Size(min = 2, max = 100, message = "Segment name must be between 2 and 100 characters")
+    @Pattern(regexp = "^[a-z][a-z0-9_]*$", message = "Segment name must start with lowercase letter and contain only lowercase letters, numbers, and underscores")
+    private String name;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+
+    private List<String> userIds;
+}
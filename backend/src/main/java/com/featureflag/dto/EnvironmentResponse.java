@@ -0,0 +1,31 @@
+package com.featureflag.dto;
+
+import com.featureflag.entity.Environment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentResponse {
+
+    private UUID id;
+    private String key;
+    private String name;
+    private Instant createdAt;
+
+    public static EnvironmentResponse fromEntity(Environment environment) {
+        return EnvironmentResponse.builder()
+                .id(environment.getId())
+                .key(environment.getKey())
+                .name(environment.getName())
+                .createdAt(environment.getCreatedAt())
+                .build();
+    }
+}
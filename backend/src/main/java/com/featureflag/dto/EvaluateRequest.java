@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,4 +20,7 @@ public class EvaluateRequest {
     private String userEmail;
 
     private String country;
+
+    // Arbitrary targeting attributes, e.g. {"plan": "pro", "appVersion": "2.4.1"}
+    private Map<String, Object> attributes;
 }
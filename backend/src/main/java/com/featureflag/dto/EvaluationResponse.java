@@ -1,5 +1,7 @@
 package com.featureflag.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.featureflag.enums.EvaluationReason;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,6 +20,20 @@ public class EvaluationResponse {
     private Map<String, Boolean> flags;
     private Map<String, EvaluationDetail> details;
 
+    // Variant key served for each multivariate flag that is on for this user
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> variants;
+
+    // Environment the flags were evaluated in
+    private String environment;
+
+    // Config version of that environment the results were computed from
+    private long snapshotVersion;
+
+    // True when Redis or the database could not confirm this is the latest config
+    // within the latency budget, so the last known snapshot was used instead
+    private boolean stale;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -27,5 +43,9 @@ public class EvaluationResponse {
         private EvaluationReason reason;
         private UUID matchedRuleId;
         private String explanation;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String variant;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private JsonNode variantValue;
     }
 }
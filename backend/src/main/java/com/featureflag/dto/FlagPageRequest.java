@@ -0,0 +1,25 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagPageRequest {
+
+    // Environment key; null lists the default environment
+    private String environment;
+    private String cursor;
+    private int limit;
+    private Boolean enabled;
+    private String namePrefix;
+    private String createdBy;
+    private Instant updatedSince;
+    private String search;
+}
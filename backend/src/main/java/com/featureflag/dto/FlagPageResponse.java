@@ -0,0 +1,19 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagPageResponse {
+
+    private List<FlagSummary> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
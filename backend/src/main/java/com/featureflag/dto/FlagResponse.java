@@ -1,6 +1,7 @@
 package com.featureflag.dto;
 
 import com.featureflag.entity.FeatureFlag;
+import com.featureflag.entity.FlagVariant;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -18,23 +20,28 @@ import java.util.stream.Collectors;
 public class FlagResponse {
 
     private UUID id;
+    private UUID environmentId;
     private String name;
     private String description;
     private boolean enabled;
     private int rolloutPercentage;
+    private List<FlagVariant> variants;
     private String createdBy;
     private Instant createdAt;
     private Instant updatedAt;
     private List<RuleResponse> rules;
     private long rulesCount;
+    private Set<UUID> prerequisiteIds;
 
     public static FlagResponse fromEntity(FeatureFlag flag) {
         return FlagResponse.builder()
                 .id(flag.getId())
+                .environmentId(flag.getEnvironmentId())
                 .name(flag.getName())
                 .description(flag.getDescription())
                 .enabled(flag.isEnabled())
                 .rolloutPercentage(flag.getRolloutPercentage())
+                .variants(flag.getVariants())
                 .createdBy(flag.getCreatedBy())
                 .createdAt(flag.getCreatedAt())
                 .updatedAt(flag.getUpdatedAt())
@@ -43,16 +50,19 @@ public class FlagResponse {
                                 .map(RuleResponse::fromEntity)
                                 .collect(Collectors.toList()) : null)
                 .rulesCount(flag.getRules() != null ? flag.getRules().size() : 0)
+                .prerequisiteIds(flag.getPrerequisiteIds() != null ? Set.copyOf(flag.getPrerequisiteIds()) : null)
                 .build();
     }
 
     public static FlagResponse fromEntityWithoutRules(FeatureFlag flag) {
         return FlagResponse.builder()
                 .id(flag.getId())
+                .environmentId(flag.getEnvironmentId())
                 .name(flag.getName())
                 .description(flag.getDescription())
                 .enabled(flag.isEnabled())
                 .rolloutPercentage(flag.getRolloutPercentage())
+                .variants(flag.getVariants())
                 .createdBy(flag.getCreatedBy())
                 .createdAt(flag.getCreatedAt())
                 .updatedAt(flag.getUpdatedAt())
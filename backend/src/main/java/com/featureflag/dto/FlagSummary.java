@@ -0,0 +1,30 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lightweight row for the paged flag listing: no rules, description truncated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagSummary {
+
+    private UUID id;
+    private UUID environmentId;
+    private String name;
+    private String description;
+    private boolean enabled;
+    private int rolloutPercentage;
+    private String createdBy;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private long rulesCount;
+}
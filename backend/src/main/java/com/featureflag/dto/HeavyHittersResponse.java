@@ -0,0 +1,42 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeavyHittersResponse {
+
+    private int windowMinutes;
+    // Start of the oldest slice counted; the window is rounded out to whole slices
+    private Instant since;
+    // Flag evaluations seen by this node in the window
+    private long totalEvaluations;
+    private List<HeavyHitter> flags;
+    private List<HeavyHitter> users;
+    private List<HeavyHitter> flagUsers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeavyHitter {
+        // Set for flags and flag/user pairs
+        private UUID flagId;
+        private String flagName;
+        // Set for users and flag/user pairs
+        private String userId;
+        // Estimated evaluations; the true count lies in [count - maxError, count]
+        private long count;
+        private long maxError;
+        private double share;
+    }
+}
@@ -0,0 +1,40 @@
+package com.featureflag.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide evaluation counts for one second. Per-flag streams set
+ * {@code flagId}; the all-flags stream lists the flags evaluated in that
+ * second under {@code flags}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LiveAnalyticsEvent {
+
+    private Instant timestamp;
+    private UUID flagId;
+    private long totalCount;
+    private long enabledCount;
+    private long disabledCount;
+    private List<FlagCount> flags;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FlagCount {
+        private UUID flagId;
+        private long enabledCount;
+        private long disabledCount;
+    }
+}
@@ -0,0 +1,34 @@
+package com.featureflag.dto;
+
+import com.featureflag.entity.Project;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectResponse {
+
+    private UUID id;
+    private String key;
+    private String name;
+    private Instant createdAt;
+    private List<EnvironmentResponse> environments;
+
+    public static ProjectResponse fromEntity(Project project, List<EnvironmentResponse> environments) {
+        return ProjectResponse.builder()
+                .id(project.getId())
+                .key(project.getKey())
+                .name(project.getName())
+                .createdAt(project.getCreatedAt())
+                .environments(environments)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.featureflag.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RolloutStepRequest {
+
+    @Min(value = 0, message = "Rollout percentage must be at least 0")
+    @Max(value = 100, message = "Rollout percentage cannot exceed 100")
+    private int rolloutPercentage;
+
+    @NotNull(message = "Apply time is required")
+    private Instant applyAt;
+}
@@ -0,0 +1,20 @@
+package com.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleImportResponse {
+
+    private UUID flagId;
+    private int rowsRead;
+    private int rulesUpserted;
+    private int duplicateRows;
+}
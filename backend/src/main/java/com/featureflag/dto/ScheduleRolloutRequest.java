@@ -0,0 +1,26 @@
+package com.featureflag.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRolloutRequest {
+
+    // e.g. 5% now+1h, 25% now+1d, 50% now+3d, 100% now+7d
+    @NotEmpty(message = "At least one step is required")
+    @Size(max = 50, message = "A schedule cannot have more than 50 steps")
+    private List<@Valid RolloutStepRequest> steps;
+
+    @Size(max = 100, message = "Created by cannot exceed 100 characters")
+    private String createdBy;
+}
@@ -0,0 +1,40 @@
+package com.featureflag.dto;
+
+import com.featureflag.entity.ScheduledRollout;
+import com.featureflag.enums.ScheduleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledRolloutResponse {
+
+    private UUID id;
+    private UUID flagId;
+    private int rolloutPercentage;
+    private Instant applyAt;
+    private ScheduleStatus status;
+    private Instant appliedAt;
+    private String createdBy;
+    private Instant createdAt;
+
+    public static ScheduledRolloutResponse fromEntity(ScheduledRollout rollout) {
+        return ScheduledRolloutResponse.builder()
+                .id(rollout.getId())
+                .flagId(rollout.getFlagId())
+                .rolloutPercentage(rollout.getRolloutPercentage())
+                .applyAt(rollout.getApplyAt())
+                .status(rollout.getStatus())
+                .appliedAt(rollout.getAppliedAt())
+                .createdBy(rollout.getCreatedBy())
+                .createdAt(rollout.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.featureflag.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentMembersRequest {
+
+    @NotEmpty(message = "At least one user ID is required")
+    private List<String> userIds;
+}
@@ -0,0 +1,37 @@
+package com.featureflag.dto;
+
+import com.featureflag.entity.Segment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentResponse {
+
+    private UUID id;
+    private String name;
+    private String description;
+    private long memberCount;
+    private long membersVersion;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    public static SegmentResponse fromEntity(Segment segment, long memberCount) {
+        return SegmentResponse.builder()
+                .id(segment.getId())
+                .name(segment.getName())
+                .description(segment.getDescription())
+                .memberCount(memberCount)
+                .membersVersion(segment.getMembersVersion())
+                .createdAt(segment.getCreatedAt())
+                .updatedAt(segment.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.featureflag.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SetVariantsRequest {
+
+    // An empty list turns the flag back into a plain boolean flag
+    @NotNull(message = "Variants are required")
+    @Size(max = 100, message = "A flag cannot have more than 100 variants")
+    private List<@Valid VariantRequest> variants;
+}
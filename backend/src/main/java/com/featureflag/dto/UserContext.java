@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +16,7 @@ public class UserContext {
     private String userId;
     private String email;
     private String country;
+    private Map<String, Object> attributes;
 
     public String getEmailDomain() {
         if (email == null || !email.contains("@")) {
@@ -21,4 +24,18 @@ public class UserContext {
         }
         return email.substring(email.indexOf("@"));
     }
+
+    /**
+     * Resolves an attribute by name. The built-in fields are addressable as
+     * {@code userId}, {@code email} and {@code country}; anything else is
+     * looked up in the custom attributes map.
+     */
+    public Object getAttribute(String name) {
+        return switch (name) {
+            case "userId" -> userId;
+            case "email" -> email;
+            case "country" -> country;
+            default -> attributes != null ? attributes.get(name) : null;
+        };
+    }
 }
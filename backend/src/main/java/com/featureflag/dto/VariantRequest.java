@@ -0,0 +1,27 @@
+package com.featureflag.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantRequest {
+
+    @NotBlank(message = "Variant key is required")
+    @Size(max = 100, message = "Variant key cannot exceed 100 characters")
+    private String key;
+
+    // Any JSON: a string, number, object or array
+    private JsonNode value;
+
+    @Min(value = 0, message = "Variant weight must be at least 0")
+    private int weight;
+}
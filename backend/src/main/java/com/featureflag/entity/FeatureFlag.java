@@ -3,11 +3,15 @@ package com.featureflag.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -23,7 +27,12 @@ public class FeatureFlag {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(nullable = false, unique = true, length = 100)
+    // Compiled only into this environment's snapshot
+    @Column(name = "environment_id", nullable = false)
+    private UUID environmentId;
+
+    // Unique within the environment
+    @Column(nullable = false, length = 100)
     private String name;
 
     @Column(columnDefinition = "TEXT")
@@ -35,6 +44,11 @@ public class FeatureFlag {
     @Column(name = "rollout_percentage", nullable = false)
     private int rolloutPercentage;
 
+    // Null or empty for a plain boolean flag
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private List<FlagVariant> variants;
+
     @Column(name = "created_by", length = 100)
     private String createdBy;
 
@@ -50,6 +64,13 @@ public class FeatureFlag {
     @Builder.Default
     private List<FlagRule> rules = new ArrayList<>();
 
+    // Flags that must be on for the same user before this one is considered
+    @ElementCollection
+    @CollectionTable(name = "flag_prerequisites", joinColumns = @JoinColumn(name = "flag_id"))
+    @Column(name = "prerequisite_id", nullable = false)
+    @Builder.Default
+    private Set<UUID> prerequisiteIds = new HashSet<>();
+
     public void addRule(FlagRule rule) {
         rules.add(rule);
         rule.setFlag(this);
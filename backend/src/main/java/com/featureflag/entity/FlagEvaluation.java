@@ -25,7 +25,8 @@ public class FlagEvaluation {
     @JoinColumn(name = "flag_id", nullable = false)
     private FeatureFlag flag;
 
-    @Column(name = "user_id", nullable = false)
+    // Null for rows that aggregate suppressed repeat exposures
+    @Column(name = "user_id")
     private String userId;
 
     @Column(nullable = false)
@@ -35,6 +36,9 @@ public class FlagEvaluation {
     @JoinColumn(name = "matched_rule_id")
     private FlagRule matchedRule;
 
+    @Column(length = 100)
+    private String variant;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "evaluation_reason", nullable = false, length = 50)
     private EvaluationReason evaluationReason;
@@ -42,4 +46,13 @@ public class FlagEvaluation {
     @CreationTimestamp
     @Column(name = "evaluated_at", nullable = false, updatable = false)
     private Instant evaluatedAt;
+
+    // Evaluations this row stands for: 1, or the number of suppressed repeats it aggregates
+    @Builder.Default
+    @Column(name = "event_count", nullable = false)
+    private int eventCount = 1;
+
+    // Set by the database; differs from evaluatedAt for events replayed from a spool
+    @Column(name = "ingested_at", insertable = false, updatable = false)
+    private Instant ingestedAt;
 }
@@ -0,0 +1,22 @@
+package com.featureflag.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One arm of a multivariate flag, stored inline in {@code feature_flags.variants}.
+ * Weights are relative: {@code 1/1/2} splits users 25/25/50.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagVariant {
+
+    private String key;
+    private JsonNode value;
+    private int weight;
+}
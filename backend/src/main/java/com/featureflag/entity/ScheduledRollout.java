@@ -0,0 +1,47 @@
+package com.featureflag.entity;
+
+import com.featureflag.enums.ScheduleStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "scheduled_rollouts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduledRollout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "flag_id", nullable = false)
+    private UUID flagId;
+
+    @Column(name = "rollout_percentage", nullable = false)
+    private int rolloutPercentage;
+
+    @Column(name = "apply_at", nullable = false)
+    private Instant applyAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private ScheduleStatus status = ScheduleStatus.PENDING;
+
+    @Column(name = "applied_at")
+    private Instant appliedAt;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
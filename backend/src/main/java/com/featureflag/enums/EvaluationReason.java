@@ -2,6 +2,7 @@ package com.featureflag.enums;
 
 public enum EvaluationReason {
     FLAG_DISABLED,
+    PREREQUISITE_FAILED,
     RULE_MATCH,
     ROLLOUT_INCLUDED,
     ROLLOUT_EXCLUDED,
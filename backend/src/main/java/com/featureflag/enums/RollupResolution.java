@@ -0,0 +1,30 @@
+package com.featureflag.enums;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Storage tiers for aggregated evaluation counts, finest first. Each tier is
+ * compacted from the one before it (MINUTE from raw evaluations).
+ */
+public enum RollupResolution {
+    MINUTE(ChronoUnit.MINUTES, "minute"),
+    HOUR(ChronoUnit.HOURS, "hour"),
+    DAY(ChronoUnit.DAYS, "day");
+
+    private final ChronoUnit unit;
+    private final String sqlUnit;
+
+    RollupResolution(ChronoUnit unit, String sqlUnit) {
+        this.unit = unit;
+        this.sqlUnit = sqlUnit;
+    }
+
+    public ChronoUnit unit() {
+        return unit;
+    }
+
+    // Field name for Postgres date_trunc
+    public String sqlUnit() {
+        return sqlUnit;
+    }
+}
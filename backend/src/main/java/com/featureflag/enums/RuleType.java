@@ -5,5 +5,10 @@ public enum RuleType {
     EMAIL_DOMAIN,
     EMAIL_EXACT,
     COUNTRY,
-    PERCENTAGE_GROUP
+    PERCENTAGE_GROUP,
+    NUMBER_RANGE,
+    SEMVER,
+    IN_SET,
+    REGEX,
+    SEGMENT
 }
@@ -0,0 +1,7 @@
+package com.featureflag.enums;
+
+public enum ScheduleStatus {
+    PENDING,
+    APPLIED,
+    CANCELLED
+}
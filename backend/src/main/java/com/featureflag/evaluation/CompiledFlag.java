@@ -0,0 +1,30 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.entity.FeatureFlag;
+
+import java.util.List;
+
+/**
+ * A flag with its enabled rules compiled and sorted by descending priority.
+ * {@code index} is the flag's position in the snapshot's dependency order;
+ * every available prerequisite has a lower index. {@code variants} is null
+ * for a plain boolean flag.
+ */
+public record CompiledFlag(FeatureFlag flag, List<CompiledRule> rules, int index, List<Prerequisite> prerequisites,
+                           VariantTable variants) {
+
+    public String name() {
+        return flag.getName();
+    }
+
+    /**
+     * A required flag. {@code index} is -1 when it is not in the snapshot
+     * (disabled or deleted), in which case it can never be satisfied.
+     */
+    public record Prerequisite(String name, int index) {
+
+        public boolean isAvailable() {
+            return index >= 0;
+        }
+    }
+}
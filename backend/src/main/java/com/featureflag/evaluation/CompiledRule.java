@@ -0,0 +1,15 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.dto.UserContext;
+import com.featureflag.entity.FlagRule;
+
+/**
+ * An enabled targeting rule together with its precompiled matcher and the
+ * explanation reported when it matches.
+ */
+public record CompiledRule(FlagRule rule, RuleMatcher matcher, String explanation) {
+
+    public boolean matches(UserContext user) {
+        return matcher.matches(user);
+    }
+}
@@ -0,0 +1,17 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.enums.EvaluationReason;
+
+import java.util.UUID;
+
+/**
+ * One logged evaluation as it travels through the local spool. The id is
+ * assigned when the event is created, so replaying it is idempotent.
+ *
+ * <p>An event without a user stands for {@code count} identical evaluations
+ * that were suppressed as repeat exposures; everything else is a single
+ * evaluation with {@code count} 1.
+ */
+public record EvaluationEvent(UUID id, UUID flagId, String userId, boolean result, UUID matchedRuleId,
+                              String variant, EvaluationReason reason, long evaluatedAtMillis, int count) {
+}
@@ -0,0 +1,109 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.enums.EvaluationReason;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary layout of a spooled {@link EvaluationEvent}: id, flag id and
+ * evaluation time as fixed-width fields, a bit set for the result and the
+ * optional fields, then the matched rule id if present and the reason, user
+ * id and variant as length-prefixed UTF-8, and the count if it is not 1. A
+ * typical event is ~70 bytes. Events written before counts existed decode
+ * with count 1.
+ */
+public final class EvaluationEventCodec {
+
+    private static final int RESULT = 1;
+    private static final int HAS_RULE = 1 << 1;
+    private static final int HAS_VARIANT = 1 << 2;
+    private static final int NO_USER = 1 << 3;
+    private static final int HAS_COUNT = 1 << 4;
+
+    private static final int FIXED_BYTES = 16 + 16 + 8 + 1;
+
+    private EvaluationEventCodec() {
+    }
+
+    public static byte[] encode(EvaluationEvent event) {
+        byte[] reason = event.reason().name().getBytes(StandardCharsets.US_ASCII);
+        byte[] userId = event.userId() == null ? null : utf8(event.userId());
+        byte[] variant = event.variant() == null ? null : utf8(event.variant());
+        boolean hasCount = event.count() != 1;
+
+        int size = FIXED_BYTES
+                + (event.matchedRuleId() != null ? 16 : 0)
+                + 1 + reason.length
+                + (userId != null ? 2 + userId.length : 0)
+                + (variant != null ? 2 + variant.length : 0)
+                + (hasCount ? 4 : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        putUuid(buffer, event.id());
+        putUuid(buffer, event.flagId());
+        buffer.putLong(event.evaluatedAtMillis());
+        buffer.put((byte) ((event.result() ? RESULT : 0)
+                | (event.matchedRuleId() != null ? HAS_RULE : 0)
+                | (variant != null ? HAS_VARIANT : 0)
+                | (userId == null ? NO_USER : 0)
+                | (hasCount ? HAS_COUNT : 0)));
+        if (event.matchedRuleId() != null) {
+            putUuid(buffer, event.matchedRuleId());
+        }
+        buffer.put((byte) reason.length).put(reason);
+        if (userId != null) {
+            buffer.putShort((short) userId.length).put(userId);
+        }
+        if (variant != null) {
+            buffer.putShort((short) variant.length).put(variant);
+        }
+        if (hasCount) {
+            buffer.putInt(event.count());
+        }
+        return buffer.array();
+    }
+
+    public static EvaluationEvent decode(ByteBuffer buffer) {
+        UUID id = getUuid(buffer);
+        UUID flagId = getUuid(buffer);
+        long evaluatedAt = buffer.getLong();
+        int bits = buffer.get();
+        UUID ruleId = (bits & HAS_RULE) != 0 ? getUuid(buffer) : null;
+        EvaluationReason reason = EvaluationReason.valueOf(
+                getString(buffer, buffer.get() & 0xFF, StandardCharsets.US_ASCII));
+        String userId = (bits & NO_USER) == 0
+                ? getString(buffer, buffer.getShort() & 0xFFFF, StandardCharsets.UTF_8)
+                : null;
+        String variant = (bits & HAS_VARIANT) != 0
+                ? getString(buffer, buffer.getShort() & 0xFFFF, StandardCharsets.UTF_8)
+                : null;
+        int count = (bits & HAS_COUNT) != 0 ? buffer.getInt() : 1;
+        return new EvaluationEvent(id, flagId, userId, (bits & RESULT) != 0, ruleId, variant, reason,
+                evaluatedAt, count);
+    }
+
+    // Longer values would be rejected by the column anyway; keep the length in a u16
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= 0xFFFF) {
+            return bytes;
+        }
+        return value.substring(0, 0x3FFF).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static String getString(ByteBuffer buffer, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, charset);
+    }
+}
@@ -0,0 +1,181 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.entity.FeatureFlag;
+import com.featureflag.entity.FlagRule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable, compiled view of one environment's enabled flags at a given
+ * config version of that environment. Built once per version and shared by
+ * all evaluation threads. The segments
+ * referenced by its rules are kept alongside so the snapshot can be
+ * persisted and recompiled without the database.
+ *
+ * <p>{@code flags} is in dependency order (prerequisites before the flags
+ * that need them, otherwise by name), so a single pass evaluates every flag
+ * exactly once and every node derives the same order for a version.
+ */
+@Slf4j
+public record FlagSnapshot(long version, List<CompiledFlag> flags, Map<String, CompiledFlag> flagsByName,
+                           Map<String, SegmentMembership> segments) {
+
+    public static final FlagSnapshot EMPTY = new FlagSnapshot(-1, List.of(), Map.of(), Map.of());
+
+    public CompiledFlag getFlag(String name) {
+        return flagsByName.get(name);
+    }
+
+    /**
+     * Copy of this snapshot at {@code newVersion} with one flag's rollout
+     * percentage changed. Rollout is read at evaluation time only, so nothing
+     * is recompiled; a flag that is not in the snapshot (disabled) is left out.
+     */
+    public FlagSnapshot withRollout(UUID flagId, int rolloutPercentage, long newVersion) {
+        List<CompiledFlag> patched = new ArrayList<>(flags);
+        Map<String, CompiledFlag> byName = new HashMap<>(flagsByName);
+        for (int i = 0; i < patched.size(); i++) {
+            CompiledFlag current = patched.get(i);
+            if (current.flag().getId().equals(flagId)) {
+                FeatureFlag flag = current.flag();
+                FeatureFlag copy = FeatureFlag.builder()
+                        .id(flag.getId())
+                        .environmentId(flag.getEnvironmentId())
+                        .name(flag.getName())
+                        .description(flag.getDescription())
+                        .enabled(flag.isEnabled())
+                        .rolloutPercentage(rolloutPercentage)
+                        .variants(flag.getVariants())
+                        .createdBy(flag.getCreatedBy())
+                        .createdAt(flag.getCreatedAt())
+                        .updatedAt(flag.getUpdatedAt())
+                        .rules(flag.getRules())
+                        .prerequisiteIds(flag.getPrerequisiteIds())
+                        .build();
+                CompiledFlag replacement = new CompiledFlag(copy, current.rules(), current.index(),
+                        current.prerequisites(), current.variants());
+                patched.set(i, replacement);
+                byName.put(replacement.name(), replacement);
+                break;
+            }
+        }
+        return new FlagSnapshot(newVersion, List.copyOf(patched), Map.copyOf(byName), segments);
+    }
+
+    public static FlagSnapshot compile(long version, List<FeatureFlag> flags, SegmentResolver segments) {
+        List<CompiledFlag> compiledFlags = new ArrayList<>(flags.size());
+        Map<String, CompiledFlag> byName = new HashMap<>();
+        Map<String, SegmentMembership> usedSegments = new HashMap<>();
+        SegmentResolver recording = name -> {
+            SegmentMembership membership = segments.resolve(name);
+            if (membership != null) {
+                usedSegments.put(name, membership);
+            }
+            return membership;
+        };
+
+        List<FeatureFlag> ordered = dependencyOrder(flags);
+        Map<UUID, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            indexById.put(ordered.get(i).getId(), i);
+        }
+
+        for (int i = 0; i < ordered.size(); i++) {
+            FeatureFlag flag = ordered.get(i);
+            CompiledFlag compiled = new CompiledFlag(flag, compileRules(flag, recording), i,
+                    compilePrerequisites(flag, i, ordered, indexById), VariantTable.of(flag.getVariants()));
+            compiledFlags.add(compiled);
+            byName.put(flag.getName(), compiled);
+        }
+
+        return new FlagSnapshot(version, List.copyOf(compiledFlags), Map.copyOf(byName), Map.copyOf(usedSegments));
+    }
+
+    private static List<FeatureFlag> dependencyOrder(List<FeatureFlag> flags) {
+        Map<UUID, FeatureFlag> byId = new HashMap<>();
+        flags.forEach(flag -> byId.put(flag.getId(), flag));
+
+        List<FeatureFlag> ordered = new ArrayList<>(flags.size());
+        Map<UUID, Boolean> visited = new HashMap<>(); // false while on the DFS stack
+        flags.stream()
+                .sorted(Comparator.comparing(FeatureFlag::getName))
+                .forEach(flag -> visit(flag, byId, visited, ordered));
+        return ordered;
+    }
+
+    private static void visit(FeatureFlag flag, Map<UUID, FeatureFlag> byId, Map<UUID, Boolean> visited,
+                              List<FeatureFlag> ordered) {
+        if (visited.containsKey(flag.getId())) {
+            return;
+        }
+        visited.put(flag.getId(), false);
+        prerequisitesOf(flag).stream()
+                .map(byId::get)
+                .filter(prerequisite -> prerequisite != null && !Boolean.FALSE.equals(visited.get(prerequisite.getId())))
+                .sorted(Comparator.comparing(FeatureFlag::getName))
+                .forEach(prerequisite -> visit(prerequisite, byId, visited, ordered));
+        visited.put(flag.getId(), true);
+        ordered.add(flag);
+    }
+
+    private static List<CompiledFlag.Prerequisite> compilePrerequisites(FeatureFlag flag, int index,
+                                                                        List<FeatureFlag> ordered,
+                                                                        Map<UUID, Integer> indexById) {
+        if (prerequisitesOf(flag).isEmpty()) {
+            return List.of();
+        }
+
+        List<CompiledFlag.Prerequisite> prerequisites = new ArrayList<>();
+        for (UUID id : prerequisitesOf(flag)) {
+            Integer prerequisiteIndex = indexById.get(id);
+            if (prerequisiteIndex == null) {
+                // Only enabled flags are loaded, so this one is off for everyone
+                prerequisites.add(new CompiledFlag.Prerequisite(id.toString(), -1));
+            } else if (prerequisiteIndex >= index) {
+                // Writes keep the graph acyclic; a leftover cycle never lets its flags on
+                String name = ordered.get(prerequisiteIndex).getName();
+                log.warn("Prerequisite cycle between {} and {}; treating it as unsatisfied", flag.getName(), name);
+                prerequisites.add(new CompiledFlag.Prerequisite(name, -1));
+            } else {
+                prerequisites.add(new CompiledFlag.Prerequisite(ordered.get(prerequisiteIndex).getName(), prerequisiteIndex));
+            }
+        }
+        prerequisites.sort(Comparator.comparingInt(CompiledFlag.Prerequisite::index));
+        return List.copyOf(prerequisites);
+    }
+
+    private static Set<UUID> prerequisitesOf(FeatureFlag flag) {
+        return flag.getPrerequisiteIds() != null ? flag.getPrerequisiteIds() : Set.of();
+    }
+
+    private static List<CompiledRule> compileRules(FeatureFlag flag, SegmentResolver segments) {
+        if (flag.getRules() == null || flag.getRules().isEmpty()) {
+            return List.of();
+        }
+
+        List<CompiledRule> compiled = new ArrayList<>();
+        flag.getRules().stream()
+                .filter(FlagRule::isEnabled)
+                .sorted(Comparator.comparingInt(FlagRule::getPriority).reversed())
+                .forEach(rule -> {
+                    try {
+                        compiled.add(new CompiledRule(
+                                rule,
+                                RuleCompiler.compile(rule.getRuleType(), rule.getRuleValue(), segments),
+                                String.format("Matched rule: %s = %s", rule.getRuleType(), rule.getRuleValue())));
+                    } catch (IllegalArgumentException e) {
+                        // Rules are validated on write; anything left over never matches
+                        log.warn("Skipping invalid rule {} on flag {}: {}",
+                                rule.getId(), flag.getName(), e.getMessage());
+                    }
+                });
+        return List.copyOf(compiled);
+    }
+}
@@ -0,0 +1,212 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.enums.RuleType;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a rule's type and raw value into a {@link RuleMatcher}. All parsing
+ * (regex compilation, version parsing, set building) happens here, once per
+ * snapshot build, so evaluation only runs the resulting predicate.
+ *
+ * <p>Attribute rules use the value format {@code attribute:operand}:
+ * <ul>
+ *   <li>{@code NUMBER_RANGE} - {@code accountAgeDays:30..365}, either bound may be omitted</li>
+ *   <li>{@code SEMVER} - {@code appVersion:>=2.3.0}, operators {@code = != > >= < <=}</li>
+ *   <li>{@code IN_SET} - {@code plan:pro,enterprise}</li>
+ *   <li>{@code REGEX} - {@code deviceModel:^Pixel [6-8]}</li>
+ * </ul>
+ * {@code SEGMENT} rules take a segment name and match on user ID.
+ */
+public final class RuleCompiler {
+
+    // Longest first so ">=" is not read as ">"
+    private static final String[] SEMVER_OPERATORS = {">=", "<=", "!=", "==", ">", "<", "="};
+
+    private RuleCompiler() {
+    }
+
+    public static RuleMatcher compile(RuleType ruleType, String ruleValue) {
+        return compile(ruleType, ruleValue, SegmentResolver.NONE);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is malformed for the rule type
+     *                                  or references an unknown segment
+     */
+    public static RuleMatcher compile(RuleType ruleType, String ruleValue, SegmentResolver segments) {
+        if (ruleType == null || ruleValue == null) {
+            throw new IllegalArgumentException("Rule type and value are required");
+        }
+        return switch (ruleType) {
+            case USER_ID -> user -> ruleValue.equals(user.getUserId());
+            case EMAIL_EXACT -> user -> user.getEmail() != null &&
+                    ruleValue.equalsIgnoreCase(user.getEmail());
+            case EMAIL_DOMAIN -> compileEmailDomain(ruleValue);
+            case COUNTRY -> user -> user.getCountry() != null &&
+                    ruleValue.equalsIgnoreCase(user.getCountry());
+            case PERCENTAGE_GROUP -> compilePercentageGroup(ruleValue);
+            case NUMBER_RANGE -> compileNumberRange(ruleValue);
+            case SEMVER -> compileSemver(ruleValue);
+            case IN_SET -> compileInSet(ruleValue);
+            case REGEX -> compileRegex(ruleValue);
+            case SEGMENT -> compileSegment(ruleValue, segments);
+        };
+    }
+
+    private static RuleMatcher compileEmailDomain(String ruleValue) {
+        String suffix = ruleValue.toLowerCase();
+        return user -> user.getEmail() != null && user.getEmail().toLowerCase().endsWith(suffix);
+    }
+
+    private static RuleMatcher compilePercentageGroup(String ruleValue) {
+        int percentage;
+        try {
+            percentage = Integer.parseInt(ruleValue.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Percentage group must be a number: " + ruleValue);
+        }
+        return user -> user.getUserId() != null && Math.abs(user.getUserId().hashCode()) % 100 < percentage;
+    }
+
+    private static RuleMatcher compileNumberRange(String ruleValue) {
+        AttributeOperand parsed = AttributeOperand.parse(ruleValue);
+        String operand = parsed.operand();
+        int separator = operand.indexOf("..");
+        if (separator < 0) {
+            throw new IllegalArgumentException("Number range must look like min..max: " + ruleValue);
+        }
+        String minPart = operand.substring(0, separator).trim();
+        String maxPart = operand.substring(separator + 2).trim();
+        double min;
+        double max;
+        try {
+            min = minPart.isEmpty() ? Double.NEGATIVE_INFINITY : Double.parseDouble(minPart);
+            max = maxPart.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(maxPart);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number range: " + ruleValue);
+        }
+        if (min > max) {
+            throw new IllegalArgumentException("Number range minimum exceeds maximum: " + ruleValue);
+        }
+
+        String attribute = parsed.attribute();
+        return user -> {
+            Double number = toNumber(user.getAttribute(attribute));
+            return number != null && number >= min && number <= max;
+        };
+    }
+
+    private static RuleMatcher compileSemver(String ruleValue) {
+        AttributeOperand parsed = AttributeOperand.parse(ruleValue);
+        String operand = parsed.operand();
+
+        String operator = "=";
+        for (String candidate : SEMVER_OPERATORS) {
+            if (operand.startsWith(candidate)) {
+                operator = candidate;
+                break;
+            }
+        }
+        SemanticVersion target = SemanticVersion.parse(
+                operand.startsWith(operator) ? operand.substring(operator.length()) : operand);
+        String op = operator.equals("==") ? "=" : operator;
+
+        String attribute = parsed.attribute();
+        return user -> {
+            SemanticVersion version = SemanticVersion.tryParse(user.getAttribute(attribute));
+            if (version == null) {
+                return false;
+            }
+            int cmp = version.compareTo(target);
+            return switch (op) {
+                case ">=" -> cmp >= 0;
+                case "<=" -> cmp <= 0;
+                case ">" -> cmp > 0;
+                case "<" -> cmp < 0;
+                case "!=" -> cmp != 0;
+                default -> cmp == 0;
+            };
+        };
+    }
+
+    private static RuleMatcher compileInSet(String ruleValue) {
+        AttributeOperand parsed = AttributeOperand.parse(ruleValue);
+        Set<String> members = Arrays.stream(parsed.operand().split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Set must contain at least one value: " + ruleValue);
+        }
+
+        String attribute = parsed.attribute();
+        return user -> {
+            Object value = user.getAttribute(attribute);
+            if (value instanceof Collection<?> values) {
+                for (Object item : values) {
+                    if (item != null && members.contains(item.toString())) return true;
+                }
+                return false;
+            }
+            return value != null && members.contains(value.toString());
+        };
+    }
+
+    private static RuleMatcher compileRegex(String ruleValue) {
+        AttributeOperand parsed = AttributeOperand.parse(ruleValue);
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(parsed.operand());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid regex: " + e.getDescription());
+        }
+
+        String attribute = parsed.attribute();
+        return user -> {
+            Object value = user.getAttribute(attribute);
+            return value != null && pattern.matcher(value.toString()).find();
+        };
+    }
+
+    private static RuleMatcher compileSegment(String ruleValue, SegmentResolver segments) {
+        SegmentMembership membership = segments.resolve(ruleValue.trim());
+        if (membership == null) {
+            throw new IllegalArgumentException("Unknown segment: " + ruleValue);
+        }
+        return user -> membership.contains(user.getUserId());
+    }
+
+    private static Double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private record AttributeOperand(String attribute, String operand) {
+
+        static AttributeOperand parse(String ruleValue) {
+            int separator = ruleValue.indexOf(':');
+            if (separator <= 0 || separator == ruleValue.length() - 1) {
+                throw new IllegalArgumentException(
+                        "Attribute rule must look like attribute:operand: " + ruleValue);
+            }
+            return new AttributeOperand(
+                    ruleValue.substring(0, separator).trim(),
+                    ruleValue.substring(separator + 1).trim());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.featureflag.evaluation;
+
+import com.featureflag.dto.UserContext;
+
+/**
+ * A targeting rule compiled into a predicate over the user context.
+ */
+@FunctionalInterface
+public interface RuleMatcher {
+
+    boolean matches(UserContext user);
+}
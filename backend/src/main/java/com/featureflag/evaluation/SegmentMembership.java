@@ -0,0 +1,136 @@
+package com.featureflag.evaluation;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact, immutable set of user IDs for segment rules.
+ *
+ * <p>IDs are stored as their UTF-8 bytes packed into one array and ordered by
+ * a 64-bit hash, so a lookup is a binary search over {@code long[]} followed
+ * by an exact byte comparison to rule out hash collisions. For typical IDs
+ * this takes a fraction of the memory of a {@code HashSet<String>} and no
+ * per-member objects.
+ */
+public final class SegmentMembership {
+
+    public static final SegmentMembership EMPTY = of(List.of());
+
+    private final long[] hashes;
+    private final int[] offsets;
+    private final byte[] data;
+
+    private SegmentMembership(long[] hashes, int[] offsets, byte[] data) {
+        this.hashes = hashes;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    public static SegmentMembership of(Collection<String> userIds) {
+        byte[][] encoded = userIds.stream()
+                .distinct()
+                .map(id -> id.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        long[] unsortedHashes = new long[encoded.length];
+        Integer[] order = new Integer[encoded.length];
+        int totalBytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            unsortedHashes[i] = hash(encoded[i]);
+            order[i] = i;
+            totalBytes += encoded[i].length;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsortedHashes[a], unsortedHashes[b]));
+
+        long[] hashes = new long[encoded.length];
+        int[] offsets = new int[encoded.length + 1];
+        byte[] data = new byte[totalBytes];
+        int position = 0;
+        for (int i = 0; i < order.length; i++) {
+            byte[] id = encoded[order[i]];
+            hashes[i] = unsortedHashes[order[i]];
+            offsets[i] = position;
+            System.arraycopy(id, 0, data, position, id.length);
+            position += id.length;
+        }
+        offsets[encoded.length] = position;
+        return new SegmentMembership(hashes, offsets, data);
+    }
+
+    public boolean contains(String userId) {
+        if (userId == null || hashes.length == 0) {
+            return false;
+        }
+        byte[] id = userId.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(id);
+        int index = Arrays.binarySearch(hashes, hash);
+        if (index < 0) {
+            return false;
+        }
+
+        // Equal hashes are adjacent; walk back to the first and check each exactly
+        while (index > 0 && hashes[index - 1] == hash) {
+            index--;
+        }
+        for (int i = index; i < hashes.length && hashes[i] == hash; i++) {
+            if (Arrays.equals(data, offsets[i], offsets[i + 1], id, 0, id.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return hashes.length;
+    }
+
+    public long sizeInBytes() {
+        return (long) hashes.length * Long.BYTES + (long) offsets.length * Integer.BYTES + data.length;
+    }
+
+    /**
+     * Writes the packed arrays as-is so {@link #readFrom} needs no re-hashing or sorting.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(hashes.length);
+        out.writeInt(data.length);
+        for (long hash : hashes) {
+            out.writeLong(hash);
+        }
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.write(data);
+    }
+
+    public static SegmentMembership readFrom(ByteBuffer in) {
+        int size = in.getInt();
+        int dataLength = in.getInt();
+        long[] hashes = new long[size];
+        in.asLongBuffer().get(hashes);
+        in.position(in.position() + size * Long.BYTES);
+        int[] offsets = new int[size + 1];
+        in.asIntBuffer().get(offsets);
+        in.position(in.position() + (size + 1) * Integer.BYTES);
+        byte[] data = new byte[dataLength];
+        in.get(data);
+        return new SegmentMembership(hashes, offsets, data);
+    }
+
+    // 64-bit FNV-1a with a final avalanche step
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
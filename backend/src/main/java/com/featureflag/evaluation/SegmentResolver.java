@@ -0,0 +1,15 @@
+package com.featureflag.evaluation;
+
+/**
+ * Looks up segment membership by segment name while a snapshot is compiled.
+ */
+@FunctionalInterface
+public interface SegmentResolver {
+
+    SegmentResolver NONE = name -> null;
+
+    /**
+     * @return the membership set, or {@code null} if no such segment exists
+     */
+    SegmentMembership resolve(String segmentName);
+}
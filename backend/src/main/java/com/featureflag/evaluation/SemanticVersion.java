@@ -0,0 +1,125 @@
+package com.featureflag.evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Parsed {@code major.minor.patch[-prerelease][+build]} version. Missing minor
+ * or patch components default to 0 and build metadata is ignored for ordering.
+ */
+public record SemanticVersion(int major, int minor, int patch, String[] preRelease)
+        implements Comparable<SemanticVersion> {
+
+    private static final String[] NO_PRE_RELEASE = new String[0];
+
+    public static SemanticVersion parse(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Version is required");
+        }
+        String version = value.trim();
+        if (version.startsWith("v") || version.startsWith("V")) {
+            version = version.substring(1);
+        }
+
+        int buildIndex = version.indexOf('+');
+        if (buildIndex >= 0) {
+            version = version.substring(0, buildIndex);
+        }
+
+        String[] preRelease = NO_PRE_RELEASE;
+        int preIndex = version.indexOf('-');
+        if (preIndex >= 0) {
+            preRelease = version.substring(preIndex + 1).split("\\.");
+            version = version.substring(0, preIndex);
+        }
+
+        String[] parts = version.split("\\.");
+        if (parts.length == 0 || parts.length > 3) {
+            throw new IllegalArgumentException("Invalid version: " + value);
+        }
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            int patch = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+            if (major < 0 || minor < 0 || patch < 0) {
+                throw new IllegalArgumentException("Invalid version: " + value);
+            }
+            return new SemanticVersion(major, minor, patch, preRelease);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid version: " + value);
+        }
+    }
+
+    /**
+     * Lenient variant used on the evaluation path, where a malformed user
+     * attribute should simply not match rather than fail the request.
+     */
+    public static SemanticVersion tryParse(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parse(value.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int compareTo(SemanticVersion other) {
+        int result = Integer.compare(major, other.major);
+        if (result != 0) return result;
+        result = Integer.compare(minor, other.minor);
+        if (result != 0) return result;
+        result = Integer.compare(patch, other.patch);
+        if (result != 0) return result;
+        return comparePreRelease(preRelease, other.preRelease);
+    }
+
+    // A release sorts after any of its pre-releases; identifiers compare
+    // numerically when both are numeric and lexically otherwise
+    private static int comparePreRelease(String[] a, String[] b) {
+        if (a.length == 0 && b.length == 0) return 0;
+        if (a.length == 0) return 1;
+        if (b.length == 0) return -1;
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            boolean aNumeric = isNumeric(a[i]);
+            boolean bNumeric = isNumeric(b[i]);
+            int result;
+            if (aNumeric && bNumeric) {
+                result = Long.compare(Long.parseLong(a[i]), Long.parseLong(b[i]));
+            } else if (aNumeric) {
+                result = -1;
+            } else if (bNumeric) {
+                result = 1;
+            } else {
+                result = a[i].compareTo(b[i]);
+            }
+            if (result != 0) return result;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static boolean isNumeric(String identifier) {
+        if (identifier.isEmpty() || identifier.length() > 18) return false;
+        for (int i = 0; i < identifier.length(); i++) {
+            if (!Character.isDigit(identifier.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SemanticVersion other && compareTo(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * major + minor) + patch) + Arrays.hashCode(preRelease);
+    }
+
+    @Override
+    public String toString() {
+        String base = major + "." + minor + "." + patch;
+        return preRelease.length == 0 ? base : base + "-" + String.join(".", preRelease);
+    }
+}
@@ -0,0 +1,169 @@
+package com.featureflag.evaluation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflag.entity.FeatureFlag;
+import com.featureflag.entity.FlagRule;
+import com.featureflag.entity.FlagVariant;
+import com.featureflag.enums.RuleType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Binary encoding of a snapshot's source definitions: one environment's
+ * enabled flags, their prerequisites, variants and rules, and the segment
+ * memberships they reference. Decoding rebuilds
+ * the entities and recompiles, which takes milliseconds and needs neither
+ * Redis nor the database.
+ */
+public final class SnapshotCodec {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private SnapshotCodec() {
+    }
+
+    public static byte[] encode(FlagSnapshot snapshot) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeInt(snapshot.flags().size());
+            for (CompiledFlag compiled : snapshot.flags()) {
+                FeatureFlag flag = compiled.flag();
+                writeUuid(out, flag.getId());
+                writeString(out, flag.getName());
+                out.writeBoolean(flag.isEnabled());
+                out.writeInt(flag.getRolloutPercentage());
+
+                Set<UUID> prerequisiteIds = flag.getPrerequisiteIds() != null ? flag.getPrerequisiteIds() : Set.of();
+                out.writeInt(prerequisiteIds.size());
+                for (UUID prerequisiteId : prerequisiteIds) {
+                    writeUuid(out, prerequisiteId);
+                }
+
+                List<FlagVariant> variants = flag.getVariants() != null ? flag.getVariants() : List.of();
+                out.writeInt(variants.size());
+                for (FlagVariant variant : variants) {
+                    writeString(out, variant.getKey());
+                    writeString(out, JSON.writeValueAsString(variant.getValue()));
+                    out.writeInt(variant.getWeight());
+                }
+
+                // Disabled rules are never compiled, so only the live ones are kept
+                out.writeInt(compiled.rules().size());
+                for (CompiledRule rule : compiled.rules()) {
+                    writeUuid(out, rule.rule().getId());
+                    writeString(out, rule.rule().getRuleType().name());
+                    writeString(out, rule.rule().getRuleValue());
+                    out.writeInt(rule.rule().getPriority());
+                }
+            }
+
+            out.writeInt(snapshot.segments().size());
+            for (Map.Entry<String, SegmentMembership> segment : snapshot.segments().entrySet()) {
+                writeString(out, segment.getKey());
+                segment.getValue().writeTo(out);
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static FlagSnapshot decode(UUID environmentId, long version, ByteBuffer in) {
+        int flagCount = in.getInt();
+        List<FeatureFlag> flags = new ArrayList<>(flagCount);
+        for (int i = 0; i < flagCount; i++) {
+            FeatureFlag flag = FeatureFlag.builder()
+                    .id(readUuid(in))
+                    .environmentId(environmentId)
+                    .name(readString(in))
+                    .enabled(in.get() != 0)
+                    .rolloutPercentage(in.getInt())
+                    .build();
+
+            int prerequisiteCount = in.getInt();
+            for (int p = 0; p < prerequisiteCount; p++) {
+                flag.getPrerequisiteIds().add(readUuid(in));
+            }
+
+            int variantCount = in.getInt();
+            if (variantCount > 0) {
+                List<FlagVariant> variants = new ArrayList<>(variantCount);
+                for (int v = 0; v < variantCount; v++) {
+                    variants.add(FlagVariant.builder()
+                            .key(readString(in))
+                            .value(readJson(in))
+                            .weight(in.getInt())
+                            .build());
+                }
+                flag.setVariants(variants);
+            }
+
+            int ruleCount = in.getInt();
+            for (int r = 0; r < ruleCount; r++) {
+                flag.addRule(FlagRule.builder()
+                        .id(readUuid(in))
+                        .ruleType(RuleType.valueOf(readString(in)))
+                        .ruleValue(readString(in))
+                        .priority(in.getInt())
+                        .enabled(true)
+                        .build());
+            }
+            flags.add(flag);
+        }
+
+        int segmentCount = in.getInt();
+        Map<String, SegmentMembership> segments = new HashMap<>();
+        for (int i = 0; i < segmentCount; i++) {
+            String name = readString(in);
+            segments.put(name, SegmentMembership.readFrom(in));
+        }
+
+        return FlagSnapshot.compile(version, flags, segments::get);
+    }
+
+    private static JsonNode readJson(ByteBuffer in) {
+        try {
+            JsonNode value = JSON.readTree(readString(in));
+            return value.isNull() ? null : value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.featureflag.evaluation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.featureflag.entity.FlagVariant;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cumulative weight table for a multivariate flag, built once per snapshot.
+ * Assigning a user is one hash of {@code flag:userId} and a binary search over
+ * the running weight totals. The hash is salted differently from the rollout
+ * bucket so variant assignment is independent of rollout inclusion.
+ */
+public final class VariantTable {
+
+    private final String[] keys;
+    private final JsonNode[] values;
+    // cumulative[i] = sum of weights of variants 0..i; variants with weight 0 are left out
+    private final long[] cumulative;
+
+    private VariantTable(String[] keys, JsonNode[] values, long[] cumulative) {
+        this.keys = keys;
+        this.values = values;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Returns null when the flag has no variants with a positive weight.
+     */
+    public static VariantTable of(List<FlagVariant> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+
+        List<FlagVariant> weighted = new ArrayList<>(variants.size());
+        for (FlagVariant variant : variants) {
+            if (variant.getWeight() > 0) {
+                weighted.add(variant);
+            }
+        }
+        if (weighted.isEmpty()) {
+            return null;
+        }
+
+        String[] keys = new String[weighted.size()];
+        JsonNode[] values = new JsonNode[weighted.size()];
+        long[] cumulative = new long[weighted.size()];
+        long total = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            FlagVariant variant = weighted.get(i);
+            total += variant.getWeight();
+            keys[i] = variant.getKey();
+            values[i] = variant.getValue();
+            cumulative[i] = total;
+        }
+        return new VariantTable(keys, values, cumulative);
+    }
+
+    /**
+     * Index of the variant for this user; stable for a given flag name, user
+     * and weight table.
+     */
+    public int assign(String flagName, String userId) {
+        long bucket = Long.remainderUnsigned(hash(flagName + ":variant:" + userId), cumulative[cumulative.length - 1]);
+        // First running total strictly greater than the bucket
+        int index = Arrays.binarySearch(cumulative, bucket + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public String key(int index) {
+        return keys[index];
+    }
+
+    public JsonNode value(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // 64-bit FNV-1a with a final avalanche step
+    private static long hash(String input) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : input.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
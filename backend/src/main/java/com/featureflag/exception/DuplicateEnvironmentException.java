@@ -0,0 +1,8 @@
+package com.featureflag.exception;
+
+public class DuplicateEnvironmentException extends RuntimeException {
+
+    public DuplicateEnvironmentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.featureflag.exception;
+
+public class DuplicateProjectException extends RuntimeException {
+
+    public DuplicateProjectException(String message) {
+        super(message);
+    }
+}
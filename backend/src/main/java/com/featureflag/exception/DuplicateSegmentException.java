@@ -0,0 +1,8 @@
+package com.featureflag.exception;
+
+public class DuplicateSegmentException extends RuntimeException {
+
+    public DuplicateSegmentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.featureflag.exception;
+
+public class EnvironmentNotFoundException extends RuntimeException {
+
+    public EnvironmentNotFoundException(String key) {
+        super("Environment not found: " + key);
+    }
+}
@@ -0,0 +1,8 @@
+package com.featureflag.exception;
+
+public class ProjectNotFoundException extends RuntimeException {
+
+    public ProjectNotFoundException(String key) {
+        super("Project not found: " + key);
+    }
+}
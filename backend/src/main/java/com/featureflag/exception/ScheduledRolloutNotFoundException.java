@@ -0,0 +1,10 @@
+package com.featureflag.exception;
+
+import java.util.UUID;
+
+public class ScheduledRolloutNotFoundException extends RuntimeException {
+
+    public ScheduledRolloutNotFoundException(UUID id) {
+        super("Scheduled rollout not found: " + id);
+    }
+}
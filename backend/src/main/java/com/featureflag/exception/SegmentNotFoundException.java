@@ -0,0 +1,14 @@
+package com.featureflag.exception;
+
+import java.util.UUID;
+
+public class SegmentNotFoundException extends RuntimeException {
+
+    public SegmentNotFoundException(UUID id) {
+        super("Segment not found: " + id);
+    }
+
+    public SegmentNotFoundException(String name) {
+        super("Segment not found: " + name);
+    }
+}
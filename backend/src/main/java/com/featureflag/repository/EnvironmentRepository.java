@@ -0,0 +1,24 @@
+package com.featureflag.repository;
+
+import com.featureflag.entity.Environment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface EnvironmentRepository extends JpaRepository<Environment, UUID> {
+
+    Optional<Environment> findByKey(String key);
+
+    boolean existsByKey(String key);
+
+    List<Environment> findAllByOrderByKeyAsc();
+
+    @Query("SELECT e.id FROM Environment e")
+    Set<UUID> findAllIds();
+}
@@ -0,0 +1,76 @@
+package com.featureflag.repository;
+
+import com.featureflag.evaluation.EvaluationEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Write side of {@code flag_evaluations} for events replayed from the local
+ * spool. Inserts are idempotent on the event id, and an event whose flag has
+ * since been deleted is skipped (a deleted rule is recorded as no rule), so a
+ * replayed batch can never fail on data that changed while it was queued.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EvaluationEventRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO flag_evaluations (id, flag_id, user_id, result, matched_rule_id, variant,
+                                          evaluation_reason, evaluated_at, event_count)
+            SELECT ?, f.id, ?, ?, r.id, ?, ?, ?, ?
+            FROM feature_flags f
+            LEFT JOIN flag_rules r ON r.id = ?
+            WHERE f.id = ?
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertBatch(List<EvaluationEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, events.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    public void insert(EvaluationEvent event) {
+        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, event));
+    }
+
+    private static void bind(PreparedStatement ps, EvaluationEvent event) throws SQLException {
+        ps.setObject(1, event.id());
+        ps.setString(2, event.userId());
+        ps.setBoolean(3, event.result());
+        ps.setString(4, event.variant());
+        ps.setString(5, event.reason().name());
+        ps.setTimestamp(6, Timestamp.from(Instant.ofEpochMilli(event.evaluatedAtMillis())));
+        ps.setInt(7, event.count());
+        setUuid(ps, 8, event.matchedRuleId());
+        ps.setObject(9, event.flagId());
+    }
+
+    private static void setUuid(PreparedStatement ps, int index, UUID value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.OTHER);
+        } else {
+            ps.setObject(index, value);
+        }
+    }
+}
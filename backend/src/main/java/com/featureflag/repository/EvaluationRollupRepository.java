@@ -0,0 +1,223 @@
+package com.featureflag.repository;
+
+import com.featureflag.enums.RollupResolution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tiered evaluation aggregates. Writes fold one tier into the next and move
+ * that tier's watermark in the same transaction; reads stitch the tiers
+ * together at the watermarks so every evaluation is counted exactly once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EvaluationRollupRepository {
+
+    // Arbitrary constant identifying rollup compaction among advisory locks
+    private static final long COMPACTION_LOCK_KEY = 0x46465255L;
+
+    private static final String UPSERT_SUFFIX = """
+            ON CONFLICT (flag_id, resolution, bucket_start, reason, variant) DO UPDATE
+            SET enabled_count = evaluation_rollups.enabled_count + EXCLUDED.enabled_count,
+                disabled_count = evaluation_rollups.disabled_count + EXCLUDED.disabled_count
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record RollupRow(Instant bucket, String reason, String variant, long enabledCount, long disabledCount) {
+    }
+
+    public record FlagTotals(UUID flagId, String flagName, boolean enabled, long enabledCount, long disabledCount,
+                             Instant lastEvaluatedAt) {
+    }
+
+    /**
+     * Claims compaction for the surrounding transaction. Returns false if
+     * another node is compacting; it will get to this work instead.
+     */
+    public boolean tryLockCompaction() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(:key)",
+                new MapSqlParameterSource("key", COMPACTION_LOCK_KEY), Boolean.class));
+    }
+
+    public Instant getWatermark(RollupResolution resolution) {
+        Timestamp watermark = jdbcTemplate.queryForObject(
+                "SELECT rolled_up_to FROM evaluation_rollup_watermarks WHERE resolution = :resolution",
+                new MapSqlParameterSource("resolution", resolution.name()), Timestamp.class);
+        return watermark.toInstant();
+    }
+
+    public void setWatermark(RollupResolution resolution, Instant rolledUpTo) {
+        jdbcTemplate.update(
+                "UPDATE evaluation_rollup_watermarks SET rolled_up_to = :to WHERE resolution = :resolution",
+                new MapSqlParameterSource()
+                        .addValue("resolution", resolution.name())
+                        .addValue("to", Timestamp.from(rolledUpTo)));
+    }
+
+    // Raw evaluations ingested in [from, to) into minute buckets, each row
+    // weighted by the evaluations it stands for. Late arrivals
+    // from a node's spool count towards the first minute of the range, since
+    // the buckets they belong to may already have been compacted further.
+    public int rollUpRaw(Instant from, Instant to) {
+        return jdbcTemplate.update("""
+                INSERT INTO evaluation_rollups (flag_id, resolution, bucket_start, reason, variant,
+                                                enabled_count, disabled_count)
+                SELECT flag_id, 'MINUTE', date_trunc('minute', GREATEST(evaluated_at, CAST(:from AS timestamptz)), 'UTC'),
+                       evaluation_reason, COALESCE(variant, ''),
+                       COALESCE(SUM(event_count) FILTER (WHERE result), 0),
+                       COALESCE(SUM(event_count) FILTER (WHERE NOT result), 0)
+                FROM flag_evaluations
+                WHERE ingested_at >= :from AND ingested_at < :to
+                GROUP BY 1, 3, 4, 5
+                """ + UPSERT_SUFFIX, range(from, to));
+    }
+
+    // Buckets of one tier in [from, to) into the next coarser tier
+    public int rollUp(RollupResolution source, RollupResolution target, Instant from, Instant to) {
+        return jdbcTemplate.update("""
+                INSERT INTO evaluation_rollups (flag_id, resolution, bucket_start, reason, variant,
+                                                enabled_count, disabled_count)
+                SELECT flag_id, :target, date_trunc(:unit, bucket_start, 'UTC'), reason, variant,
+                       SUM(enabled_count), SUM(disabled_count)
+                FROM evaluation_rollups
+                WHERE resolution = :source AND bucket_start >= :from AND bucket_start < :to
+                GROUP BY 1, 3, 4, 5
+                """ + UPSERT_SUFFIX, range(from, to)
+                .addValue("source", source.name())
+                .addValue("target", target.name())
+                .addValue("unit", target.sqlUnit()));
+    }
+
+    public int deleteBefore(RollupResolution resolution, Instant before) {
+        return jdbcTemplate.update(
+                "DELETE FROM evaluation_rollups WHERE resolution = :resolution AND bucket_start < :before",
+                new MapSqlParameterSource()
+                        .addValue("resolution", resolution.name())
+                        .addValue("before", Timestamp.from(before)));
+    }
+
+    public int deleteRawBefore(Instant before) {
+        return jdbcTemplate.update("DELETE FROM flag_evaluations WHERE ingested_at < :before",
+                new MapSqlParameterSource("before", Timestamp.from(before)));
+    }
+
+    /**
+     * Counts for one flag since {@code start}, bucketed at {@code seriesUnit}.
+     * The window is read from {@code tier} up to its watermark, then from each
+     * finer tier up to its own, and finally from raw evaluations not yet
+     * rolled up. Watermarks are read in the same statement, so a concurrent
+     * compaction cannot make a bucket appear in two places.
+     */
+    public List<RollupRow> findWindow(UUID flagId, RollupResolution tier, Instant start,
+                                      RollupResolution seriesUnit) {
+        MapSqlParameterSource params = windowParams(tier, start)
+                .addValue("flagId", flagId)
+                .addValue("unit", seriesUnit.sqlUnit());
+        return jdbcTemplate.query(stitchedWindow("r.flag_id = :flagId", "e.flag_id = :flagId") + """
+                SELECT date_trunc(:unit, ts, 'UTC') AS bucket, reason, variant,
+                       SUM(enabled_count) AS enabled_count, SUM(disabled_count) AS disabled_count
+                FROM t
+                GROUP BY 1, 2, 3
+                ORDER BY 1
+                """, params, (rs, rowNum) -> new RollupRow(
+                rs.getTimestamp("bucket").toInstant(),
+                rs.getString("reason"),
+                rs.getString("variant"),
+                rs.getLong("enabled_count"),
+                rs.getLong("disabled_count")));
+    }
+
+    /**
+     * Totals for every flag of one environment since {@code start}, stitched
+     * across tiers the same way as {@link #findWindow}, in one grouped
+     * statement. Flags without evaluations in the window are included with
+     * zero counts.
+     */
+    public List<FlagTotals> findTotals(UUID environmentId, RollupResolution tier, Instant start) {
+        String inEnvironment = "IN (SELECT id FROM feature_flags WHERE environment_id = :environmentId)";
+        MapSqlParameterSource params = windowParams(tier, start).addValue("environmentId", environmentId);
+        return jdbcTemplate.query(stitchedWindow("r.flag_id " + inEnvironment, "e.flag_id " + inEnvironment) + """
+                , totals AS (
+                    SELECT flag_id, SUM(enabled_count) AS enabled_count, SUM(disabled_count) AS disabled_count,
+                           MAX(last_ts) AS last_evaluated_at
+                    FROM t
+                    GROUP BY flag_id
+                )
+                SELECT f.id, f.name, f.enabled,
+                       COALESCE(s.enabled_count, 0) AS enabled_count,
+                       COALESCE(s.disabled_count, 0) AS disabled_count,
+                       s.last_evaluated_at
+                FROM feature_flags f
+                LEFT JOIN totals s ON s.flag_id = f.id
+                WHERE f.environment_id = :environmentId
+                ORDER BY f.name
+                """, params, (rs, rowNum) -> {
+            Timestamp lastEvaluatedAt = rs.getTimestamp("last_evaluated_at");
+            return new FlagTotals(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("name"),
+                    rs.getBoolean("enabled"),
+                    rs.getLong("enabled_count"),
+                    rs.getLong("disabled_count"),
+                    lastEvaluatedAt != null ? lastEvaluatedAt.toInstant() : null);
+        });
+    }
+
+    private static MapSqlParameterSource windowParams(RollupResolution tier, Instant start) {
+        return new MapSqlParameterSource()
+                .addValue("start", Timestamp.from(start))
+                .addValue("useDay", tier == RollupResolution.DAY)
+                .addValue("useHour", tier != RollupResolution.MINUTE);
+    }
+
+    // CTEs w (watermarks) and t (stitched rows since :start). ts is where a row counts in a
+    // series; last_ts is when it was evaluated, to the bucket for rolled-up rows.
+    private static String stitchedWindow(String rollupFilter, String rawFilter) {
+        return """
+                WITH w AS (
+                    SELECT MAX(rolled_up_to) FILTER (WHERE resolution = 'MINUTE') AS minute_to,
+                           MAX(rolled_up_to) FILTER (WHERE resolution = 'HOUR') AS hour_to,
+                           MAX(rolled_up_to) FILTER (WHERE resolution = 'DAY') AS day_to
+                    FROM evaluation_rollup_watermarks
+                ), t AS (
+                    SELECT r.flag_id, r.bucket_start AS ts, r.bucket_start AS last_ts, r.reason, r.variant,
+                           r.enabled_count, r.disabled_count
+                    FROM evaluation_rollups r, w
+                    WHERE %s AND (
+                        (r.resolution = 'DAY' AND :useDay
+                            AND r.bucket_start >= CAST(:start AS timestamptz)
+                            AND r.bucket_start < w.day_to)
+                     OR (r.resolution = 'HOUR' AND :useHour
+                            AND r.bucket_start >= CASE WHEN :useDay THEN GREATEST(CAST(:start AS timestamptz), w.day_to)
+                                                       ELSE CAST(:start AS timestamptz) END
+                            AND r.bucket_start < w.hour_to)
+                     OR (r.resolution = 'MINUTE'
+                            AND r.bucket_start >= CASE WHEN :useHour THEN GREATEST(CAST(:start AS timestamptz), w.hour_to)
+                                                       ELSE CAST(:start AS timestamptz) END
+                            AND r.bucket_start < w.minute_to))
+                    UNION ALL
+                    SELECT e.flag_id, GREATEST(e.evaluated_at, w.minute_to), e.evaluated_at,
+                           e.evaluation_reason, COALESCE(e.variant, ''),
+                           CASE WHEN e.result THEN e.event_count ELSE 0 END,
+                           CASE WHEN e.result THEN 0 ELSE e.event_count END
+                    FROM flag_evaluations e, w
+                    WHERE e.ingested_at >= w.minute_to AND %s
+                      AND GREATEST(e.evaluated_at, w.minute_to) >= CAST(:start AS timestamptz)
+                )
+                """.formatted(rollupFilter, rawFilter);
+    }
+
+    private static MapSqlParameterSource range(Instant from, Instant to) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to));
+    }
+}
@@ -14,20 +14,23 @@ import java.util.UUID;
 @Repository
 public interface FeatureFlagRepository extends JpaRepository<FeatureFlag, UUID> {
 
-    Optional<FeatureFlag> findByName(String name);
+    Optional<FeatureFlag> findByEnvironmentIdAndName(UUID environmentId, String name);
 
-    boolean existsByName(String name);
+    boolean existsByEnvironmentIdAndName(UUID environmentId, String name);
 
-    List<FeatureFlag> findByEnabledTrue();
+    long countByEnvironmentId(UUID environmentId);
 
-    @Query("SELECT f FROM FeatureFlag f LEFT JOIN FETCH f.rules WHERE f.enabled = true")
-    List<FeatureFlag> findAllEnabledWithRules();
+    @Query("SELECT f FROM FeatureFlag f LEFT JOIN FETCH f.rules LEFT JOIN FETCH f.prerequisiteIds WHERE f.environmentId = :environmentId AND f.enabled = true")
+    List<FeatureFlag> findAllEnabledWithRules(@Param("environmentId") UUID environmentId);
 
     @Query("SELECT f FROM FeatureFlag f LEFT JOIN FETCH f.rules WHERE f.id = :id")
     Optional<FeatureFlag> findByIdWithRules(@Param("id") UUID id);
 
-    @Query("SELECT f FROM FeatureFlag f LEFT JOIN FETCH f.rules WHERE f.name = :name")
-    Optional<FeatureFlag> findByNameWithRules(@Param("name") String name);
+    @Query("SELECT f FROM FeatureFlag f LEFT JOIN FETCH f.rules WHERE f.environmentId = :environmentId AND f.name = :name")
+    Optional<FeatureFlag> findByNameWithRules(@Param("environmentId") UUID environmentId, @Param("name") String name);
+
+    @Query("SELECT f.environmentId FROM FeatureFlag f WHERE f.id = :id")
+    Optional<UUID> findEnvironmentIdById(@Param("id") UUID id);
 
     @Modifying
     @Query("UPDATE FeatureFlag f SET f.enabled = :enabled WHERE f.id = :id")
@@ -40,5 +43,5 @@ public interface FeatureFlagRepository extends JpaRepository<FeatureFlag, UUID>
     @Query("SELECT COUNT(f) FROM FeatureFlag f WHERE f.enabled = true")
     long countEnabled();
 
-    List<FeatureFlag> findAllByOrderByCreatedAtDesc();
+    List<FeatureFlag> findAllByEnvironmentIdOrderByCreatedAtDesc(UUID environmentId);
 }
@@ -0,0 +1,95 @@
+package com.featureflag.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based writes over many flags at once, selected by ID list or name
+ * prefix within one environment. Each operation is a single statement however many flags it
+ * touches; callers run them in one transaction and invalidate the cache once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlagBulkRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /** Flags to operate on: either an ID list or a name prefix, in one environment. */
+    public record Selection(UUID environmentId, Collection<UUID> ids, String namePrefix) {
+
+        String where(String alias) {
+            return alias + ".environment_id = :environmentId AND "
+                    + (ids != null ? alias + ".id IN (:ids)" : alias + ".name LIKE :namePrefix");
+        }
+
+        MapSqlParameterSource params() {
+            MapSqlParameterSource params = new MapSqlParameterSource("environmentId", environmentId);
+            return ids != null
+                    ? params.addValue("ids", ids)
+                    : params.addValue("namePrefix", escapeLike(namePrefix) + "%");
+        }
+    }
+
+    /**
+     * Sets {@code enabled} and/or {@code rolloutPercentage} (null leaves a
+     * column alone) on the selected flags and returns the names of those that
+     * changed. Flags already in the requested state are not written, so
+     * their {@code updated_at} keeps its meaning.
+     */
+    public List<String> update(Selection selection, Boolean enabled, Integer rolloutPercentage) {
+        MapSqlParameterSource params = selection.params()
+                .addValue("enabled", enabled)
+                .addValue("rollout", rolloutPercentage);
+        return jdbcTemplate.queryForList("""
+                UPDATE feature_flags f
+                SET enabled = COALESCE(CAST(:enabled AS boolean), f.enabled),
+                    rollout_percentage = COALESCE(CAST(:rollout AS integer), f.rollout_percentage)
+                WHERE %s
+                  AND (f.enabled IS DISTINCT FROM COALESCE(CAST(:enabled AS boolean), f.enabled)
+                    OR f.rollout_percentage IS DISTINCT FROM COALESCE(CAST(:rollout AS integer), f.rollout_percentage))
+                RETURNING f.name
+                """.formatted(selection.where("f")), params, String.class);
+    }
+
+    /**
+     * "dependent -> prerequisite" for every edge where an unselected flag
+     * requires a selected one, which would block deleting the selection.
+     */
+    public List<String> findOutsideDependents(Selection selection) {
+        return jdbcTemplate.queryForList("""
+                SELECT d.name || ' -> ' || f.name
+                FROM flag_prerequisites e
+                JOIN feature_flags f ON f.id = e.prerequisite_id
+                JOIN feature_flags d ON d.id = e.flag_id
+                WHERE %s AND NOT (%s)
+                ORDER BY d.name, f.name
+                """.formatted(selection.where("f"), selection.where("d")), selection.params(), String.class);
+    }
+
+    /**
+     * Deletes the selected flags and returns their names. Prerequisite edges
+     * between selected flags are removed first; rules, schedules and
+     * evaluation data go with the flags by cascade.
+     */
+    public List<String> delete(Selection selection) {
+        jdbcTemplate.update("""
+                DELETE FROM flag_prerequisites
+                WHERE flag_id IN (SELECT f.id FROM feature_flags f WHERE %s)
+                """.formatted(selection.where("f")), selection.params());
+        return jdbcTemplate.queryForList("""
+                DELETE FROM feature_flags f
+                WHERE %s
+                RETURNING f.name
+                """.formatted(selection.where("f")), selection.params(), String.class);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,54 @@
+package com.featureflag.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read side of the prerequisite graph, used to keep it acyclic on write.
+ * The edges themselves are written through {@code FeatureFlag.prerequisiteIds}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlagPrerequisiteRepository {
+
+    // Arbitrary constant identifying the prerequisite graph among advisory locks
+    private static final long GRAPH_LOCK_KEY = 0x46465052L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Serializes prerequisite writes until the surrounding transaction ends, so
+     * two concurrent edges cannot each pass the cycle check and close a loop.
+     */
+    public void lockGraph() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> {}, GRAPH_LOCK_KEY);
+    }
+
+    // flag id -> ids of the flags it requires
+    public Map<UUID, List<UUID>> findAllEdges() {
+        return jdbcTemplate.query("SELECT flag_id, prerequisite_id FROM flag_prerequisites", rs -> {
+            Map<UUID, List<UUID>> edges = new HashMap<>();
+            while (rs.next()) {
+                edges.computeIfAbsent(rs.getObject(1, UUID.class), id -> new ArrayList<>())
+                        .add(rs.getObject(2, UUID.class));
+            }
+            return edges;
+        });
+    }
+
+    public List<String> findDependentNames(UUID prerequisiteId) {
+        return jdbcTemplate.queryForList("""
+                SELECT f.name FROM flag_prerequisites p
+                JOIN feature_flags f ON f.id = p.flag_id
+                WHERE p.prerequisite_id = ?
+                ORDER BY f.name
+                """, String.class, prerequisiteId);
+    }
+}
@@ -0,0 +1,92 @@
+package com.featureflag.repository;
+
+import com.featureflag.dto.FlagPageRequest;
+import com.featureflag.dto.FlagSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated flag listing. Rows are ordered by (created_at, id)
+ * descending and a page continues strictly after the last row of the
+ * previous one, so every page costs the same however deep it is.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlagQueryRepository {
+
+    private static final int DESCRIPTION_PREVIEW_LENGTH = 200;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @param environmentId  environment to list; flags are never listed across environments
+     * @param afterCreatedAt created_at of the last row already returned, or null for the first page
+     * @param afterId        id of the last row already returned
+     * @param limit          rows to fetch; callers ask for one extra to detect a further page
+     */
+    public List<FlagSummary> findPage(UUID environmentId, FlagPageRequest filter, Instant afterCreatedAt, UUID afterId,
+                                      int limit) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT f.id, f.environment_id, f.name, LEFT(f.description, :previewLength) AS description, f.enabled,
+                   f.rollout_percentage, f.created_by, f.created_at, f.updated_at,
+                   (SELECT COUNT(*) FROM flag_rules r WHERE r.flag_id = f.id) AS rules_count
+            FROM feature_flags f
+            WHERE f.environment_id = :environmentId
+            """);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("environmentId", environmentId)
+                .addValue("previewLength", DESCRIPTION_PREVIEW_LENGTH)
+                .addValue("limit", limit);
+
+        if (filter.getEnabled() != null) {
+            sql.append(" AND f.enabled = :enabled");
+            params.addValue("enabled", filter.getEnabled());
+        }
+        if (filter.getNamePrefix() != null && !filter.getNamePrefix().isBlank()) {
+            sql.append(" AND f.name LIKE :namePrefix");
+            params.addValue("namePrefix", escapeLike(filter.getNamePrefix().trim()) + "%");
+        }
+        if (filter.getCreatedBy() != null && !filter.getCreatedBy().isBlank()) {
+            sql.append(" AND f.created_by = :createdBy");
+            params.addValue("createdBy", filter.getCreatedBy().trim());
+        }
+        if (filter.getUpdatedSince() != null) {
+            sql.append(" AND f.updated_at >= :updatedSince");
+            params.addValue("updatedSince", Timestamp.from(filter.getUpdatedSince()));
+        }
+        if (filter.getSearch() != null && !filter.getSearch().isBlank()) {
+            sql.append(" AND f.name ILIKE :search");
+            params.addValue("search", "%" + escapeLike(filter.getSearch().trim()) + "%");
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" AND (f.created_at, f.id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", Timestamp.from(afterCreatedAt));
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY f.created_at DESC, f.id DESC LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> FlagSummary.builder()
+                .id(rs.getObject("id", UUID.class))
+                .environmentId(rs.getObject("environment_id", UUID.class))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .enabled(rs.getBoolean("enabled"))
+                .rolloutPercentage(rs.getInt("rollout_percentage"))
+                .createdBy(rs.getString("created_by"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .updatedAt(rs.getTimestamp("updated_at").toInstant())
+                .rulesCount(rs.getLong("rules_count"))
+                .build());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,43 @@
+package com.featureflag.repository;
+
+import com.featureflag.dto.CreateRuleRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Batched JDBC writes for rule imports, where going through JPA would mean a
+ * select and an insert per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlagRuleBatchRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO flag_rules (flag_id, rule_type, rule_value, enabled, priority)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT ON CONSTRAINT unique_rule_per_flag
+        DO UPDATE SET enabled = EXCLUDED.enabled, priority = EXCLUDED.priority
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the rules, updating {@code enabled} and {@code priority} on rows
+     * that already exist for the same (flag, type, value).
+     */
+    public void upsertRules(UUID flagId, Collection<CreateRuleRequest> rules) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rules, BATCH_SIZE, (ps, rule) -> {
+            ps.setObject(1, flagId);
+            ps.setString(2, rule.getRuleType().name());
+            ps.setString(3, rule.getRuleValue());
+            ps.setBoolean(4, rule.isEnabled());
+            ps.setInt(5, rule.getPriority());
+        });
+    }
+}
@@ -32,4 +32,10 @@ public interface FlagRuleRepository extends JpaRepository<FlagRule, UUID> {
     int updateEnabledStatus(@Param("id") UUID id, @Param("enabled") boolean enabled);
 
     long countByFlagId(UUID flagId);
+
+    long countByRuleTypeAndRuleValue(RuleType ruleType, String ruleValue);
+
+    @Query("SELECT DISTINCT r.flag.environmentId FROM FlagRule r WHERE r.ruleType = :ruleType AND r.ruleValue = :ruleValue")
+    List<UUID> findEnvironmentIdsByRuleTypeAndRuleValue(@Param("ruleType") RuleType ruleType,
+                                                       @Param("ruleValue") String ruleValue);
 }
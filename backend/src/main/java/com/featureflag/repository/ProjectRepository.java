@@ -0,0 +1,19 @@
+package com.featureflag.repository;
+
+import com.featureflag.entity.Project;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ProjectRepository extends JpaRepository<Project, UUID> {
+
+    Optional<Project> findByKey(String key);
+
+    boolean existsByKey(String key);
+
+    List<Project> findAllByOrderByKeyAsc();
+}
@@ -0,0 +1,30 @@
+package com.featureflag.repository;
+
+import com.featureflag.entity.ScheduledRollout;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ScheduledRolloutRepository extends JpaRepository<ScheduledRollout, UUID> {
+
+    List<ScheduledRollout> findByFlagIdOrderByApplyAtAsc(UUID flagId);
+
+    @Query("SELECT s FROM ScheduledRollout s WHERE s.status = com.featureflag.enums.ScheduleStatus.PENDING AND s.applyAt <= :until ORDER BY s.applyAt")
+    List<ScheduledRollout> findPendingDueBefore(@Param("until") Instant until);
+
+    // Both transitions are guarded on PENDING, so a change is applied or cancelled at most once
+    @Modifying
+    @Query("UPDATE ScheduledRollout s SET s.status = com.featureflag.enums.ScheduleStatus.APPLIED, s.appliedAt = :at WHERE s.id = :id AND s.status = com.featureflag.enums.ScheduleStatus.PENDING")
+    int markApplied(@Param("id") UUID id, @Param("at") Instant at);
+
+    @Modifying
+    @Query("UPDATE ScheduledRollout s SET s.status = com.featureflag.enums.ScheduleStatus.CANCELLED WHERE s.id = :id AND s.status = com.featureflag.enums.ScheduleStatus.PENDING")
+    int cancel(@Param("id") UUID id);
+}
@@ -0,0 +1,75 @@
+package com.featureflag.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Segment membership rows are plain (segment, user) pairs that can number in
+ * the hundreds of thousands, so they are handled with batched JDBC rather
+ * than as JPA entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SegmentMemberRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public List<String> findUserIds(UUID segmentId) {
+        return jdbcTemplate.queryForList(
+                "SELECT user_id FROM segment_members WHERE segment_id = ?", String.class, segmentId);
+    }
+
+    public long countBySegmentId(UUID segmentId) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM segment_members WHERE segment_id = ?", Long.class, segmentId);
+        return count != null ? count : 0;
+    }
+
+    public Map<UUID, Long> countBySegment() {
+        return jdbcTemplate.query(
+                "SELECT segment_id, COUNT(*) FROM segment_members GROUP BY segment_id",
+                rs -> {
+                    Map<UUID, Long> counts = new HashMap<>();
+                    while (rs.next()) {
+                        counts.put(rs.getObject(1, UUID.class), rs.getLong(2));
+                    }
+                    return counts;
+                });
+    }
+
+    public void addMembers(UUID segmentId, Collection<String> userIds) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO segment_members (segment_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                userIds, BATCH_SIZE,
+                (ps, userId) -> {
+                    ps.setObject(1, segmentId);
+                    ps.setString(2, userId);
+                });
+    }
+
+    public int removeMembers(UUID segmentId, Collection<String> userIds) {
+        // Chunked to stay well under the driver's bind parameter limit
+        List<String> ids = List.copyOf(userIds);
+        int removed = 0;
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            removed += namedJdbcTemplate.update(
+                    "DELETE FROM segment_members WHERE segment_id = :segmentId AND user_id IN (:userIds)",
+                    new MapSqlParameterSource()
+                            .addValue("segmentId", segmentId)
+                            .addValue("userIds", ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))));
+        }
+        return removed;
+    }
+}
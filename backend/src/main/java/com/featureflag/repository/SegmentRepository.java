@@ -0,0 +1,26 @@
+package com.featureflag.repository;
+
+import com.featureflag.entity.Segment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SegmentRepository extends JpaRepository<Segment, UUID> {
+
+    Optional<Segment> findByName(String name);
+
+    boolean existsByName(String name);
+
+    List<Segment> findAllByOrderByNameAsc();
+
+    @Modifying
+    @Query("UPDATE Segment s SET s.membersVersion = s.membersVersion + 1 WHERE s.id = :id")
+    int incrementMembersVersion(@Param("id") UUID id);
+}
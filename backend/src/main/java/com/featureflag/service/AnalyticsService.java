@@ -2,77 +2,117 @@ package com.featureflag.service;
 
 import com.featureflag.dto.AnalyticsResponse;
 import com.featureflag.dto.AnalyticsResponse.TimeSeriesPoint;
+import com.featureflag.dto.AnalyticsSummaryResponse;
+import com.featureflag.dto.AnalyticsSummaryResponse.FlagSummary;
+import com.featureflag.entity.Environment;
 import com.featureflag.entity.FeatureFlag;
-import com.featureflag.enums.EvaluationReason;
 import com.featureflag.exception.FlagNotFoundException;
 import com.featureflag.repository.FeatureFlagRepository;
-import com.featureflag.repository.FlagEvaluationRepository;
+import com.featureflag.repository.EvaluationRollupRepository.FlagTotals;
+import com.featureflag.repository.EvaluationRollupRepository.RollupRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
-@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
     private final FeatureFlagRepository flagRepository;
-    private final FlagEvaluationRepository evaluationRepository;
+    private final UniqueUserTracker uniqueUserTracker;
+    private final EvaluationRollupService rollupService;
+    private final EnvironmentService environmentService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.analytics.cache-seconds:10}")
+    private long cacheSeconds;
+
+    private Cache<WindowKey, AnalyticsResponse> responseCache;
+    private Cache<SummaryKey, AnalyticsSummaryResponse> summaryCache;
+
+    @PostConstruct
+    public void init() {
+        if (cacheSeconds <= 0) {
+            return;
+        }
+        responseCache = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache, "analytics");
+        summaryCache = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaryCache, "analyticsSummary");
+    }
 
     @Transactional(readOnly = true)
     public AnalyticsResponse getAnalytics(UUID flagId) {
         return getAnalytics(flagId, 24); // Default to last 24 hours
     }
 
+    /**
+     * Analytics for the last {@code hoursBack} hours. Responses are shared for
+     * a few seconds per flag and window, so a dashboard open in many browsers
+     * queries the rollups once per interval rather than once per viewer.
+     */
     @Transactional(readOnly = true)
     public AnalyticsResponse getAnalytics(UUID flagId, int hoursBack) {
+        if (responseCache == null) {
+            return computeAnalytics(flagId, hoursBack);
+        }
+        return responseCache.get(new WindowKey(flagId, hoursBack), key -> computeAnalytics(flagId, hoursBack));
+    }
+
+    private AnalyticsResponse computeAnalytics(UUID flagId, int hoursBack) {
         FeatureFlag flag = flagRepository.findById(flagId)
                 .orElseThrow(() -> new FlagNotFoundException(flagId));
 
         Instant since = Instant.now().minus(hoursBack, ChronoUnit.HOURS);
+        Instant uniqueUsersSince = uniqueUserTracker.coveredSince(since);
 
-        // Get total counts
-        long totalEvaluations = evaluationRepository.countByFlagIdSince(flagId, since);
-        long enabledCount = evaluationRepository.countByFlagIdAndResultSince(flagId, true, since);
-        long disabledCount = evaluationRepository.countByFlagIdAndResultSince(flagId, false, since);
+        // One pass over the window, read from the coarsest tier that still has it
+        long enabledCount = 0;
+        long disabledCount = 0;
+        Map<String, Long> evaluationsByReason = new HashMap<>();
+        Map<String, Long> evaluationsByVariant = new HashMap<>();
+        Map<Instant, TimeSeriesPoint> buckets = new LinkedHashMap<>();
+        for (RollupRow row : rollupService.findWindow(flagId, hoursBack)) {
+            long total = row.enabledCount() + row.disabledCount();
+            enabledCount += row.enabledCount();
+            disabledCount += row.disabledCount();
+            evaluationsByReason.merge(row.reason(), total, Long::sum);
+            if (!row.variant().isEmpty()) {
+                evaluationsByVariant.merge(row.variant(), total, Long::sum);
+            }
+
+            TimeSeriesPoint point = buckets.computeIfAbsent(row.bucket(),
+                    ts -> TimeSeriesPoint.builder().timestamp(ts).build());
+            point.setEnabledCount(point.getEnabledCount() + row.enabledCount());
+            point.setDisabledCount(point.getDisabledCount() + row.disabledCount());
+            point.setTotalCount(point.getTotalCount() + total);
+        }
+        long totalEvaluations = enabledCount + disabledCount;
 
         // Calculate percentage
         double enabledPercentage = totalEvaluations > 0
                 ? (double) enabledCount / totalEvaluations * 100
                 : 0.0;
 
-        // Get counts by reason
-        Map<String, Long> evaluationsByReason = new HashMap<>();
-        List<Object[]> reasonCounts = evaluationRepository.countByFlagIdGroupByReasonSince(flagId, since);
-        for (Object[] row : reasonCounts) {
-            EvaluationReason reason = (EvaluationReason) row[0];
-            Long count = (Long) row[1];
-            evaluationsByReason.put(reason.name(), count);
-        }
-
-        // Get time series data
-        List<TimeSeriesPoint> timeSeries = new ArrayList<>();
-        List<Object[]> hourlyStats = evaluationRepository.getHourlyEvaluationStats(flagId, since);
-        for (Object[] row : hourlyStats) {
-            Timestamp ts = (Timestamp) row[0];
-            Long enabled = ((Number) row[1]).longValue();
-            Long disabled = ((Number) row[2]).longValue();
-            Long total = ((Number) row[3]).longValue();
-
-            timeSeries.add(TimeSeriesPoint.builder()
-                    .timestamp(ts.toInstant())
-                    .enabledCount(enabled)
-                    .disabledCount(disabled)
-                    .totalCount(total)
-                    .build());
-        }
-
         return AnalyticsResponse.builder()
                 .flagId(flagId)
                 .flagName(flag.getName())
@@ -80,17 +120,64 @@ public class AnalyticsService {
                 .enabledCount(enabledCount)
                 .disabledCount(disabledCount)
                 .enabledPercentage(Math.round(enabledPercentage * 100.0) / 100.0)
+                .uniqueUsers(uniqueUserTracker.countUniqueUsers(flagId, uniqueUsersSince, false))
+                .uniqueEnabledUsers(uniqueUserTracker.countUniqueUsers(flagId, uniqueUsersSince, true))
+                .uniqueUsersSince(uniqueUsersSince)
                 .configuredRolloutPercentage(flag.getRolloutPercentage())
-                .evaluationsOverTime(timeSeries)
+                .resolution(rollupService.seriesResolutionFor(hoursBack).name())
+                .evaluationsOverTime(new ArrayList<>(buckets.values()))
                 .evaluationsByReason(evaluationsByReason)
+                .evaluationsByVariant(evaluationsByVariant)
                 .build();
     }
 
-    @Transactional
-    public int cleanupOldEvaluations(int daysToKeep) {
-        Instant before = Instant.now().minus(daysToKeep, ChronoUnit.DAYS);
-        int deleted = evaluationRepository.deleteOldEvaluations(before);
-        log.info("Deleted {} old evaluation records", deleted);
-        return deleted;
+    /**
+     * Totals for every flag of an environment over the last {@code hoursBack}
+     * hours, from one grouped query over the rollups, so the flag list costs
+     * the same however many flags it shows. Shared for a few seconds per
+     * environment and window, like {@link #getAnalytics(UUID, int)}.
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsSummaryResponse getSummary(String environmentKey, int hoursBack) {
+        Environment environment = environmentService.resolve(environmentKey);
+        if (summaryCache == null) {
+            return computeSummary(environment, hoursBack);
+        }
+        return summaryCache.get(new SummaryKey(environment.getId(), hoursBack),
+                key -> computeSummary(environment, hoursBack));
+    }
+
+    private AnalyticsSummaryResponse computeSummary(Environment environment, int hoursBack) {
+        Instant now = Instant.now();
+        List<FlagSummary> flags = new ArrayList<>();
+        for (FlagTotals totals : rollupService.findTotals(environment.getId(), hoursBack)) {
+            long totalEvaluations = totals.enabledCount() + totals.disabledCount();
+            double enabledPercentage = totalEvaluations > 0
+                    ? (double) totals.enabledCount() / totalEvaluations * 100
+                    : 0.0;
+            flags.add(FlagSummary.builder()
+                    .flagId(totals.flagId())
+                    .flagName(totals.flagName())
+                    .enabled(totals.enabled())
+                    .totalEvaluations(totalEvaluations)
+                    .enabledCount(totals.enabledCount())
+                    .disabledCount(totals.disabledCount())
+                    .enabledPercentage(Math.round(enabledPercentage * 100.0) / 100.0)
+                    .lastEvaluatedAt(totals.lastEvaluatedAt())
+                    .build());
+        }
+
+        return AnalyticsSummaryResponse.builder()
+                .environment(environment.getKey())
+                .hours(hoursBack)
+                .since(now.minus(hoursBack, ChronoUnit.HOURS))
+                .resolution(rollupService.tierFor(hoursBack).name())
+                .generatedAt(now)
+                .flags(flags)
+                .build();
     }
+
+    private record WindowKey(UUID flagId, int hours) {}
+
+    private record SummaryKey(UUID environmentId, int hours) {}
 }
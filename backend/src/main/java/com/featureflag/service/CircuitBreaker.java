@@ -0,0 +1,106 @@
+package com.featureflag.service;
+
+import com.featureflag.exception.DependencyUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Consecutive-failure circuit breaker for a single dependency. After
+ * {@code failureThreshold} failures in a row the circuit opens and calls are
+ * rejected without touching the dependency; once {@code openMs} has passed a
+ * single trial call is let through, and its outcome closes or re-opens it.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+
+    private final Counter rejected;
+    private final Counter opened;
+
+    CircuitBreaker(String name, int failureThreshold, long openMs, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+
+        Gauge.builder("featureflag.circuit.state", state, s -> s.get().ordinal())
+                .tag("dependency", name)
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("featureflag.circuit.rejected", "dependency", name);
+        this.opened = meterRegistry.counter("featureflag.circuit.opened", "dependency", name);
+    }
+
+    /**
+     * True if a call may go ahead. Callers that get {@code true} must report
+     * the outcome through {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Circuit for {} closed", name);
+        }
+    }
+
+    void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAtNanos = System.nanoTime();
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                opened.increment();
+                log.warn("Circuit for {} opened after {} consecutive failures", name, failures);
+            }
+        }
+    }
+
+    <T> T call(Supplier<T> action) {
+        if (!tryAcquire()) {
+            throw new DependencyUnavailableException(name + " circuit is open");
+        }
+        try {
+            T result = action.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            onFailure();
+            throw e;
+        }
+    }
+
+    State getState() {
+        return state.get();
+    }
+
+    String getName() {
+        return name;
+    }
+}
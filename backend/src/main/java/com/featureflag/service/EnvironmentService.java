@@ -0,0 +1,235 @@
+package com.featureflag.service;
+
+import com.featureflag.dto.CreateEnvironmentRequest;
+import com.featureflag.dto.CreateProjectRequest;
+import com.featureflag.dto.EnvironmentResponse;
+import com.featureflag.dto.ProjectResponse;
+import com.featureflag.entity.Environment;
+import com.featureflag.entity.Project;
+import com.featureflag.exception.DependencyUnavailableException;
+import com.featureflag.exception.DuplicateEnvironmentException;
+import com.featureflag.exception.DuplicateProjectException;
+import com.featureflag.exception.EnvironmentNotFoundException;
+import com.featureflag.exception.ProjectNotFoundException;
+import com.featureflag.repository.EnvironmentRepository;
+import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.repository.ProjectRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Projects and their environments. Every flag belongs to one environment,
+ * and API calls name it by key ({@code ?environment=staging}); calls that
+ * name none use the default environment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EnvironmentService {
+
+    private final ProjectRepository projectRepository;
+    private final EnvironmentRepository environmentRepository;
+    private final FeatureFlagRepository flagRepository;
+    private final FlagCacheService cacheService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.environments.default-key:production}")
+    private String defaultKey;
+
+    @Value("${featureflag.environments.cache-seconds:60}")
+    private long cacheSeconds;
+
+    // How long an environment known only from its snapshot is used before the database is tried again
+    @Value("${featureflag.environments.fallback-seconds:5}")
+    private long fallbackSeconds;
+
+    @Value("${featureflag.evaluation.latency-budget-ms:50}")
+    private long latencyBudgetMs;
+
+    // Keys are resolved on every evaluation; they never change, and a deletion
+    // shows up on other nodes once their entry expires. Async, so concurrent
+    // misses for a key share one load
+    private AsyncCache<String, Environment> byKey;
+    private Cache<String, Environment> fallbacks;
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PostConstruct
+    public void init() {
+        byKey = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .executor(loadExecutor)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, byKey, "environments");
+        fallbacks = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(fallbackSeconds))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loadExecutor.shutdownNow();
+    }
+
+    /**
+     * The environment with the given key, or the default environment when
+     * {@code key} is null or blank.
+     *
+     * <p>A lookup that misses the cache is bounded by the evaluation latency
+     * budget. If the database is slow or its circuit is open, an environment
+     * this node holds a snapshot for is served from the snapshot's key and ID
+     * for a few seconds, while the load completes in the background.
+     */
+    public Environment resolve(String key) {
+        String resolvedKey = key == null || key.isBlank() ? defaultKey : key.trim();
+        CompletableFuture<Environment> load = byKey.get(resolvedKey,
+                (k, executor) -> CompletableFuture.supplyAsync(() -> load(k), executor));
+        if (load.isDone() && !load.isCompletedExceptionally()) {
+            return found(resolvedKey, load.join());
+        }
+        Environment fallback = fallbacks.getIfPresent(resolvedKey);
+        if (fallback != null) {
+            return fallback;
+        }
+
+        try {
+            return found(resolvedKey, load.get(latencyBudgetMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+            // Environments this node holds snapshots for can be served while the database is slow or down
+            Optional<UUID> id = cacheService.findEnvironmentId(resolvedKey);
+            if (id.isPresent()) {
+                Environment environment = Environment.builder().id(id.get()).key(resolvedKey).build();
+                fallbacks.put(resolvedKey, environment);
+                return environment;
+            }
+            if (e instanceof ExecutionException) {
+                throw unavailable(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException("Interrupted while resolving environment");
+        }
+
+        // Nothing to fall back on: wait for the load, bounded by the breaker and the pool's timeout
+        try {
+            return found(resolvedKey, load.join());
+        } catch (CompletionException e) {
+            throw unavailable(e.getCause());
+        }
+    }
+
+    // Null when there is no such environment, so the miss is not cached
+    private Environment load(String key) {
+        return cacheService.callDatabase(() -> environmentRepository.findByKey(key)).orElse(null);
+    }
+
+    private static Environment found(String key, Environment environment) {
+        if (environment == null) {
+            throw new EnvironmentNotFoundException(key);
+        }
+        return environment;
+    }
+
+    private static DependencyUnavailableException unavailable(Throwable cause) {
+        return cause instanceof DependencyUnavailableException unavailable
+                ? unavailable
+                : new DependencyUnavailableException("Environments are unavailable", cause);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectResponse> getProjects() {
+        Map<UUID, List<EnvironmentResponse>> environments = environmentRepository.findAllByOrderByKeyAsc().stream()
+                .collect(Collectors.groupingBy(Environment::getProjectId,
+                        Collectors.mapping(EnvironmentResponse::fromEntity, Collectors.toList())));
+        return projectRepository.findAllByOrderByKeyAsc().stream()
+                .map(project -> ProjectResponse.fromEntity(project,
+                        environments.getOrDefault(project.getId(), List.of())))
+                .toList();
+    }
+
+    @Transactional
+    public ProjectResponse createProject(CreateProjectRequest request) {
+        if (projectRepository.existsByKey(request.getKey())) {
+            throw new DuplicateProjectException("Project already exists: " + request.getKey());
+        }
+
+        Project project = projectRepository.save(Project.builder()
+                .key(request.getKey())
+                .name(request.getName())
+                .build());
+
+        log.info("Created project: {}", project.getKey());
+        return ProjectResponse.fromEntity(project, List.of());
+    }
+
+    /**
+     * Adds an environment to a project. It starts with no flags and gets its
+     * own snapshot the first time it is evaluated.
+     */
+    @Transactional
+    public EnvironmentResponse createEnvironment(String projectKey, CreateEnvironmentRequest request) {
+        Project project = projectRepository.findByKey(projectKey)
+                .orElseThrow(() -> new ProjectNotFoundException(projectKey));
+        if (environmentRepository.existsByKey(request.getKey())) {
+            throw new DuplicateEnvironmentException("Environment already exists: " + request.getKey());
+        }
+
+        Environment environment = environmentRepository.save(Environment.builder()
+                .projectId(project.getId())
+                .key(request.getKey())
+                .name(request.getName())
+                .build());
+
+        log.info("Created environment {} in project {}", environment.getKey(), project.getKey());
+        return EnvironmentResponse.fromEntity(environment);
+    }
+
+    @Transactional
+    public void deleteEnvironment(String projectKey, String environmentKey) {
+        Project project = projectRepository.findByKey(projectKey)
+                .orElseThrow(() -> new ProjectNotFoundException(projectKey));
+        Environment environment = environmentRepository.findByKey(environmentKey)
+                .filter(candidate -> candidate.getProjectId().equals(project.getId()))
+                .orElseThrow(() -> new EnvironmentNotFoundException(environmentKey));
+
+        if (environment.getKey().equals(defaultKey)) {
+            throw new IllegalArgumentException("The default environment cannot be deleted");
+        }
+        long flags = flagRepository.countByEnvironmentId(environment.getId());
+        if (flags > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Environment %s still has %d flag(s)", environment.getKey(), flags));
+        }
+
+        environmentRepository.delete(environment);
+        byKey.synchronous().invalidate(environment.getKey());
+        fallbacks.invalidate(environment.getKey());
+        log.info("Deleted environment {} from project {}", environment.getKey(), project.getKey());
+    }
+}
@@ -0,0 +1,190 @@
+package com.featureflag.service;
+
+import com.featureflag.enums.RollupResolution;
+import com.featureflag.repository.EvaluationRollupRepository;
+import com.featureflag.repository.EvaluationRollupRepository.FlagTotals;
+import com.featureflag.repository.EvaluationRollupRepository.RollupRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Keeps evaluation analytics in three tiers: minute buckets for the last
+ * day, hour buckets for the last month and day buckets for the last year.
+ * A background job folds raw evaluations into minutes, complete hours of
+ * minutes into hours and complete days of hours into days, then expires
+ * each tier (and raw evaluations) once the next tier covers it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EvaluationRollupService {
+
+    // Per-transaction caps, so a backfill of old history proceeds in small steps
+    private static final Duration RAW_CHUNK = Duration.ofHours(1);
+    private static final Duration MINUTE_CHUNK = Duration.ofDays(1);
+    private static final Duration HOUR_CHUNK = Duration.ofDays(31);
+    private static final int MAX_CHUNKS_PER_RUN = 24;
+
+    private final EvaluationRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${featureflag.analytics.rollups.enabled:true}")
+    private boolean enabled;
+
+    // Rows are stamped with ingested_at on insert but only visible at commit;
+    // give in-flight shipper batches time to land
+    @Value("${featureflag.analytics.rollups.settle-seconds:120}")
+    private long settleSeconds;
+
+    @Value("${featureflag.analytics.rollups.minute-retention-hours:24}")
+    private int minuteRetentionHours;
+
+    @Value("${featureflag.analytics.rollups.hour-retention-days:30}")
+    private int hourRetentionDays;
+
+    @Value("${featureflag.analytics.rollups.day-retention-days:365}")
+    private int dayRetentionDays;
+
+    @Value("${featureflag.analytics.rollups.raw-retention-hours:48}")
+    private int rawRetentionHours;
+
+    /**
+     * Finest tier still holding the whole window. Windows longer than the
+     * day tier's retention are rejected rather than silently truncated.
+     */
+    public RollupResolution tierFor(int hoursBack) {
+        if (hoursBack < 1 || hoursBack > dayRetentionDays * 24) {
+            throw new IllegalArgumentException(
+                    "Analytics window must be between 1 and " + dayRetentionDays * 24 + " hours");
+        }
+        if (hoursBack <= minuteRetentionHours) {
+            return RollupResolution.MINUTE;
+        }
+        if (hoursBack <= hourRetentionDays * 24) {
+            return RollupResolution.HOUR;
+        }
+        return RollupResolution.DAY;
+    }
+
+    /**
+     * Series resolution for a window: the tier's own, except that windows of
+     * more than six hours read from the minute tier are charted hourly.
+     */
+    public RollupResolution seriesResolutionFor(int hoursBack) {
+        RollupResolution tier = tierFor(hoursBack);
+        return tier == RollupResolution.MINUTE && hoursBack > 6 ? RollupResolution.HOUR : tier;
+    }
+
+    public List<RollupRow> findWindow(UUID flagId, int hoursBack) {
+        RollupResolution tier = tierFor(hoursBack);
+        Instant start = Instant.now().minus(hoursBack, ChronoUnit.HOURS).truncatedTo(tier.unit());
+        return rollupRepository.findWindow(flagId, tier, start, seriesResolutionFor(hoursBack));
+    }
+
+    public List<FlagTotals> findTotals(UUID environmentId, int hoursBack) {
+        RollupResolution tier = tierFor(hoursBack);
+        Instant start = Instant.now().minus(hoursBack, ChronoUnit.HOURS).truncatedTo(tier.unit());
+        return rollupRepository.findTotals(environmentId, tier, start);
+    }
+
+    @Scheduled(fixedDelayString = "${featureflag.analytics.rollups.compact-interval-ms:60000}",
+            initialDelayString = "${featureflag.analytics.rollups.compact-interval-ms:60000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant settled = Instant.now().minusSeconds(settleSeconds).truncatedTo(ChronoUnit.MINUTES);
+            int minutes = advance(RollupResolution.MINUTE, RAW_CHUNK, () -> settled,
+                    rollupRepository::rollUpRaw);
+            int hours = advance(RollupResolution.HOUR, MINUTE_CHUNK,
+                    () -> rollupRepository.getWatermark(RollupResolution.MINUTE).truncatedTo(ChronoUnit.HOURS),
+                    (from, to) -> rollupRepository.rollUp(RollupResolution.MINUTE, RollupResolution.HOUR, from, to));
+            int days = advance(RollupResolution.DAY, HOUR_CHUNK,
+                    () -> rollupRepository.getWatermark(RollupResolution.HOUR).truncatedTo(ChronoUnit.DAYS),
+                    (from, to) -> rollupRepository.rollUp(RollupResolution.HOUR, RollupResolution.DAY, from, to));
+            if (minutes + hours + days > 0) {
+                log.debug("Compacted evaluation rollups: {} minute, {} hour, {} day buckets",
+                        minutes, hours, days);
+            }
+            expire();
+        } catch (Exception e) {
+            log.warn("Evaluation rollup compaction failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the source of {@code target} into it from the target's watermark
+     * up to {@code limit}, one chunk per transaction. Returns the number of
+     * buckets written, or 0 if another node holds the compaction lock.
+     */
+    private int advance(RollupResolution target, Duration chunk, Supplier<Instant> limit,
+                        RollUp rollUp) {
+        int written = 0;
+        for (int i = 0; i < MAX_CHUNKS_PER_RUN; i++) {
+            Integer step = transactionTemplate.execute(status -> {
+                if (!rollupRepository.tryLockCompaction()) {
+                    return null;
+                }
+                Instant from = rollupRepository.getWatermark(target);
+                Instant to = min(limit.get(), from.plus(chunk));
+                if (!to.isAfter(from)) {
+                    return null;
+                }
+                int buckets = rollUp.apply(from, to);
+                rollupRepository.setWatermark(target, to);
+                return buckets;
+            });
+            if (step == null) {
+                break;
+            }
+            written += step;
+        }
+        return written;
+    }
+
+    // Never drops data the next tier (or the minute tier, for raw rows) does not yet cover
+    private void expire() {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!rollupRepository.tryLockCompaction()) {
+                return;
+            }
+            int minutes = rollupRepository.deleteBefore(RollupResolution.MINUTE, min(
+                    now.minus(minuteRetentionHours, ChronoUnit.HOURS),
+                    rollupRepository.getWatermark(RollupResolution.HOUR)));
+            int hours = rollupRepository.deleteBefore(RollupResolution.HOUR, min(
+                    now.minus(hourRetentionDays, ChronoUnit.DAYS),
+                    rollupRepository.getWatermark(RollupResolution.DAY)));
+            int days = rollupRepository.deleteBefore(RollupResolution.DAY,
+                    now.minus(dayRetentionDays, ChronoUnit.DAYS));
+            int raw = rollupRepository.deleteRawBefore(min(
+                    now.minus(rawRetentionHours, ChronoUnit.HOURS),
+                    rollupRepository.getWatermark(RollupResolution.MINUTE)));
+            if (minutes + hours + days + raw > 0) {
+                log.info("Expired {} minute, {} hour, {} day rollups and {} raw evaluations",
+                        minutes, hours, days, raw);
+            }
+        });
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    @FunctionalInterface
+    private interface RollUp {
+        int apply(Instant from, Instant to);
+    }
+}
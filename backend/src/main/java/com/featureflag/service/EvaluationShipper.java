@@ -0,0 +1,125 @@
+package com.featureflag.service;
+
+import com.featureflag.evaluation.EvaluationEvent;
+import com.featureflag.repository.EvaluationEventRepository;
+import com.featureflag.service.EvaluationSpool.Batch;
+import com.featureflag.service.EvaluationSpool.Position;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the evaluation spool into {@code flag_evaluations} in batches,
+ * acknowledging each batch once it is committed. While the database is down
+ * events simply accumulate in the spool and are shipped when it returns.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EvaluationShipper {
+
+    private final EvaluationSpool spool;
+    private final EvaluationEventRepository eventRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.spool.batch-size:500}")
+    private int batchSize;
+
+    @Value("${featureflag.spool.ship-interval-ms:500}")
+    private long shipIntervalMs;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "evaluation-spool-shipper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the shipper thread
+    private Position position;
+    private boolean failing;
+
+    private Counter shipped;
+    private Counter rejected;
+
+    @PostConstruct
+    public void start() {
+        if (!spool.isAvailable()) {
+            return;
+        }
+        shipped = meterRegistry.counter("featureflag.spool.shipped");
+        rejected = meterRegistry.counter("featureflag.spool.dropped", "reason", "rejected");
+        executor.scheduleWithFixedDelay(this::ship, shipIntervalMs, shipIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (shipped == null) {
+            executor.shutdownNow();
+            return;
+        }
+        try {
+            // Last drain so a clean shutdown leaves little behind; the rest ships on next start
+            executor.submit(this::ship).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Final spool drain did not complete: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    private void ship() {
+        try {
+            spool.sync();
+            if (position == null) {
+                position = spool.acknowledged();
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                Batch batch = spool.read(position, batchSize);
+                if (batch.events().isEmpty() && batch.next().equals(position)) {
+                    break;
+                }
+                if (!batch.events().isEmpty()) {
+                    insert(batch);
+                }
+                position = batch.next();
+                spool.acknowledge(position);
+            }
+            if (failing) {
+                log.info("Evaluation spool shipping recovered");
+                failing = false;
+            }
+        } catch (Exception e) {
+            if (!failing) {
+                log.warn("Evaluation spool shipping paused, events stay queued locally: {}", e.getMessage());
+                failing = true;
+            }
+        }
+    }
+
+    private void insert(Batch batch) {
+        try {
+            eventRepository.insertBatch(batch.events());
+        } catch (DataIntegrityViolationException e) {
+            // One bad event must not block the spool: retry one by one and drop only the bad ones
+            for (EvaluationEvent event : batch.events()) {
+                try {
+                    eventRepository.insert(event);
+                } catch (DataIntegrityViolationException rowError) {
+                    log.warn("Dropping spooled evaluation {} for flag {}: {}",
+                            event.id(), event.flagId(), rowError.getMessage());
+                    rejected.increment();
+                }
+            }
+        }
+        shipped.increment(batch.events().size());
+    }
+}
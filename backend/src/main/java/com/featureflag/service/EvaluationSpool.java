@@ -0,0 +1,322 @@
+package com.featureflag.service;
+
+import com.featureflag.evaluation.EvaluationEvent;
+import com.featureflag.evaluation.EvaluationEventCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local spool for evaluation events, so logging an evaluation
+ * never waits on the database. Events are appended to fixed-size
+ * memory-mapped segment files and shipped to Postgres in the background by
+ * {@link EvaluationShipper}; a segment is deleted once everything in it has
+ * been acknowledged.
+ *
+ * <p>Segment layout: magic and format version, then frames of
+ * {@code [int length][int CRC32C][EvaluationEventCodec body]}. The length is
+ * written last, so a frame cut short by a crash reads as a zero length or a
+ * bad checksum and marks the end of the segment. On restart the previous
+ * active segment is treated as sealed and a new one is started, so a torn
+ * tail is never written over.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EvaluationSpool {
+
+    private static final int MAGIC = 0x46464553; // "FFES"
+    private static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int ACK_BYTES = 8 + 4 + 4;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.spool.dir:data/spool}")
+    private Path dir;
+
+    @Value("${featureflag.spool.segment-bytes:16777216}")
+    private int segmentBytes;
+
+    // Beyond this backlog new events are dropped rather than filling the disk
+    @Value("${featureflag.spool.max-segments:64}")
+    private int maxSegments;
+
+    private final Object writeLock = new Object();
+    private MappedByteBuffer active;
+    private long activeSegment;
+    private int writePosition;
+    private volatile long oldestSegment;
+    private volatile boolean available;
+
+    private FileChannel ackChannel;
+    // Read mapping reused across batches; only touched by the shipper thread
+    private long mappedSegment = -1;
+    private ByteBuffer mapped;
+    private Counter appended;
+    private Counter droppedFull;
+    private Counter droppedError;
+
+    /** Read position: a segment and a byte offset within it. */
+    public record Position(long segment, int offset) {
+    }
+
+    /** Events read from the spool and the position just after the last one. */
+    public record Batch(List<EvaluationEvent> events, Position next) {
+    }
+
+    @PostConstruct
+    public void init() {
+        appended = meterRegistry.counter("featureflag.spool.appended");
+        droppedFull = meterRegistry.counter("featureflag.spool.dropped", "reason", "full");
+        droppedError = meterRegistry.counter("featureflag.spool.dropped", "reason", "io_error");
+        Gauge.builder("featureflag.spool.segments", this, spool -> spool.activeSegment - spool.oldestSegment + 1)
+                .description("Spool segments not yet fully shipped to the database")
+                .register(meterRegistry);
+
+        try {
+            Files.createDirectories(dir);
+            ackChannel = FileChannel.open(dir.resolve("ack"), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            List<Long> segments = listSegments();
+            long last = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+            oldestSegment = segments.isEmpty() ? last + 1 : segments.get(0);
+            synchronized (writeLock) {
+                openSegment(last + 1);
+            }
+            available = true;
+            if (!segments.isEmpty()) {
+                log.info("Evaluation spool recovered {} unshipped segments in {}", segments.size(), dir);
+            }
+        } catch (IOException e) {
+            // Evaluations keep working; their events are counted as dropped
+            log.error("Evaluation spool unavailable in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            if (active != null) {
+                active.force();
+            }
+            available = false;
+        }
+    }
+
+    /**
+     * Appends an event. Never blocks on anything but the local page cache;
+     * returns false and counts the event as dropped if the spool is full or
+     * unusable.
+     */
+    public boolean append(EvaluationEvent event) {
+        if (!available) {
+            droppedError.increment();
+            return false;
+        }
+        byte[] body = EvaluationEventCodec.encode(event);
+        int frameBytes = FRAME_HEADER_BYTES + body.length;
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+
+        if (frameBytes > segmentBytes - SEGMENT_HEADER_BYTES) {
+            droppedError.increment();
+            return false;
+        }
+
+        synchronized (writeLock) {
+            if (writePosition + frameBytes > segmentBytes) {
+                if (activeSegment - oldestSegment + 1 >= maxSegments) {
+                    droppedFull.increment();
+                    return false;
+                }
+                try {
+                    active.force();
+                    openSegment(activeSegment + 1);
+                } catch (IOException e) {
+                    log.error("Failed to start spool segment {}: {}", activeSegment + 1, e.getMessage());
+                    droppedError.increment();
+                    return false;
+                }
+            }
+            active.put(writePosition + FRAME_HEADER_BYTES, body);
+            active.putInt(writePosition + 4, (int) crc.getValue());
+            active.putInt(writePosition, body.length);
+            writePosition += frameBytes;
+        }
+        appended.increment();
+        return true;
+    }
+
+    /** Flushes appended events to disk so they survive an OS crash, not just a process crash. */
+    public void sync() {
+        MappedByteBuffer segment;
+        synchronized (writeLock) {
+            segment = active;
+        }
+        // Outside the lock: appends carry on while the pages are written back
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Reads up to {@code max} events from {@code from}. At the end of a sealed
+     * segment the returned position moves on to the next segment; in the
+     * active segment reading stops at the last complete append.
+     */
+    public Batch read(Position from, int max) throws IOException {
+        long segment;
+        int limit;
+        synchronized (writeLock) {
+            segment = activeSegment;
+            limit = writePosition;
+        }
+        if (from.segment() > segment) {
+            return new Batch(List.of(), from);
+        }
+        boolean sealed = from.segment() < segment;
+
+        ByteBuffer buffer = map(from.segment());
+        if (buffer == null) {
+            return new Batch(List.of(), new Position(from.segment() + 1, SEGMENT_HEADER_BYTES));
+        }
+        if (!sealed) {
+            buffer.limit(limit);
+        }
+
+        List<EvaluationEvent> events = new ArrayList<>(Math.min(max, 1024));
+        int position = from.offset();
+        CRC32C crc = new CRC32C();
+        while (events.size() < max && position + FRAME_HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + FRAME_HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            ByteBuffer body = buffer.slice(position + FRAME_HEADER_BYTES, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Spool segment {} has a torn frame at offset {}, skipping the rest",
+                        from.segment(), position);
+                break;
+            }
+            events.add(EvaluationEventCodec.decode(body));
+            position += FRAME_HEADER_BYTES + length;
+        }
+        if (sealed && events.size() < max) {
+            return new Batch(events, new Position(from.segment() + 1, SEGMENT_HEADER_BYTES));
+        }
+        return new Batch(events, new Position(from.segment(), position));
+    }
+
+    /** Position the shipper last acknowledged, or the start of the oldest segment. */
+    public Position acknowledged() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ACK_BYTES);
+        ackChannel.read(buffer, 0);
+        buffer.flip();
+        Position start = new Position(oldestSegment, SEGMENT_HEADER_BYTES);
+        if (buffer.remaining() < ACK_BYTES) {
+            return start;
+        }
+        long segment = buffer.getLong();
+        int offset = buffer.getInt();
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, 12);
+        if ((int) crc.getValue() != buffer.getInt() || segment < oldestSegment) {
+            return start;
+        }
+        return new Position(segment, offset);
+    }
+
+    /**
+     * Records that everything before {@code position} is in the database and
+     * deletes segments that are now fully shipped. Replays after a crash
+     * between the insert and this call are harmless: inserts are idempotent.
+     */
+    public void acknowledge(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ACK_BYTES);
+        buffer.putLong(position.segment()).putInt(position.offset());
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, 12);
+        buffer.putInt((int) crc.getValue()).flip();
+        ackChannel.write(buffer, 0);
+        ackChannel.force(false);
+
+        while (oldestSegment < position.segment()) {
+            Files.deleteIfExists(segmentFile(oldestSegment));
+            oldestSegment++;
+        }
+    }
+
+    // Null if the segment is gone or is not a spool segment of this format
+    private ByteBuffer map(long segment) throws IOException {
+        if (segment != mappedSegment) {
+            Path file = segmentFile(segment);
+            if (!Files.exists(file)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mappedSegment = segment;
+            }
+        }
+        if (mapped.capacity() < SEGMENT_HEADER_BYTES
+                || mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION) {
+            log.warn("Skipping spool segment {}: not a format {} segment", segment, FORMAT_VERSION);
+            return null;
+        }
+        return mapped.duplicate();
+    }
+
+    // Caller holds writeLock
+    private void openSegment(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION);
+            active = buffer;
+            activeSegment = segment;
+            writePosition = SEGMENT_HEADER_BYTES;
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,146 @@
+package com.featureflag.service;
+
+import com.featureflag.enums.EvaluationReason;
+import com.featureflag.evaluation.EvaluationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drops repeat exposures before they are logged: the same user getting the
+ * same outcome of the same flag again within the window adds a row but no
+ * information. Exposures seen recently are remembered in a
+ * {@link RotatingBloomFilter}; a repeat is not logged individually but
+ * counted per (minute, flag, outcome), and the counts are logged as one row
+ * without a user each, so evaluation totals in analytics still include every
+ * evaluation. A filter false positive therefore only loses the user ID of one
+ * exposure, never its count.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExposureDeduplicator {
+
+    private final EvaluationSpool evaluationSpool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.exposures.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${featureflag.exposures.dedup.window-seconds:60}")
+    private int windowSeconds;
+
+    // Per generation; two generations are kept. 2^24 bits (2 MB) keep false positives
+    // below 0.3% for a million distinct exposures per half window
+    @Value("${featureflag.exposures.dedup.filter-bits:16777216}")
+    private int filterBits;
+
+    @Value("${featureflag.exposures.dedup.hash-functions:4}")
+    private int hashFunctions;
+
+    private RotatingBloomFilter filter;
+    // Suppressed repeats not yet logged; entries are added with merge and taken with remove,
+    // both atomic per key, so no increment is lost to a concurrent flush
+    private final Map<SuppressedKey, Long> suppressed = new ConcurrentHashMap<>();
+
+    private Counter loggedCounter;
+    private Counter suppressedCounter;
+
+    @PostConstruct
+    public void init() {
+        loggedCounter = meterRegistry.counter("featureflag.exposures", "outcome", "logged");
+        suppressedCounter = meterRegistry.counter("featureflag.exposures", "outcome", "suppressed");
+        if (!enabled) {
+            return;
+        }
+        filter = new RotatingBloomFilter(filterBits, hashFunctions, TimeUnit.SECONDS.toNanos(windowSeconds));
+        Gauge.builder("featureflag.exposures.filter.fill", filter, RotatingBloomFilter::fillRatio)
+                .description("Share of exposure filter bits set in the current generation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true if this exposure repeats one logged within the window and
+     * has been counted instead; the caller then skips logging it.
+     */
+    public boolean suppress(UUID flagId, String userId, boolean result, UUID ruleId, String variant,
+                            EvaluationReason reason) {
+        if (filter == null || userId == null) {
+            loggedCounter.increment();
+            return false;
+        }
+        if (!filter.addIfAbsent(hash(flagId, userId, result, ruleId, variant, reason))) {
+            loggedCounter.increment();
+            return false;
+        }
+        long minute = System.currentTimeMillis() / 60_000 * 60_000;
+        suppressed.merge(new SuppressedKey(minute, flagId, result, ruleId, variant, reason), 1L, Long::sum);
+        suppressedCounter.increment();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${featureflag.exposures.dedup.flush-interval-ms:5000}")
+    public void flush() {
+        for (SuppressedKey key : List.copyOf(suppressed.keySet())) {
+            Long count = suppressed.remove(key);
+            if (count == null) {
+                continue;
+            }
+            // Logged in the minute the repeats happened, so series buckets stay accurate
+            evaluationSpool.append(new EvaluationEvent(UUID.randomUUID(), key.flagId(), null, key.result(),
+                    key.ruleId(), key.variant(), key.reason(), key.minute(), (int) Math.min(count, Integer.MAX_VALUE)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Outcome and variant are part of the key, so a user whose result changes is logged again
+    private static long hash(UUID flagId, String userId, boolean result, UUID ruleId, String variant,
+                             EvaluationReason reason) {
+        long h = mix(flagId.getMostSignificantBits() ^ mix(flagId.getLeastSignificantBits()));
+        h = mix(h ^ hash(userId));
+        if (ruleId != null) {
+            h = mix(h ^ ruleId.getMostSignificantBits());
+            h = mix(h ^ ruleId.getLeastSignificantBits());
+        }
+        if (variant != null) {
+            h = mix(h ^ hash(variant));
+        }
+        return mix(h ^ ((long) reason.ordinal() << 1 | (result ? 1 : 0)));
+    }
+
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e7ca2L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record SuppressedKey(long minute, UUID flagId, boolean result, UUID ruleId, String variant,
+                                 EvaluationReason reason) {}
+}
@@ -1,18 +1,60 @@
 package com.featureflag.service;
 
+import com.featureflag.entity.Environment;
 import com.featureflag.entity.FeatureFlag;
+import com.featureflag.evaluation.FlagSnapshot;
+import com.featureflag.exception.DependencyUnavailableException;
+import com.featureflag.repository.EnvironmentRepository;
 import com.featureflag.repository.FeatureFlagRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
 import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
+/**
+ * Compiled flag snapshots, one per environment. Each environment has its own
+ * config version in Redis ({@code featureflags:version:<environment id>}),
+ * its own cached flag list and rollout patches, and is rebuilt and persisted
+ * on its own: a change in one environment never moves another's version, so
+ * its evaluators keep their snapshot and memoized results.
+ *
+ * <p>Snapshots are kept for every environment this node has evaluated (or
+ * restored from disk), and are created on first use.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -20,52 +62,605 @@ public class FlagCacheService {
 
     private static final String FLAGS_CACHE_KEY = "featureflags:cache";
     private static final String ALL_FLAGS_KEY = "all_enabled_flags";
+    // Moves with a change in any environment; only admin reads are keyed on it
+    private static final String CONFIG_VERSION_KEY = "featureflags:version";
+    private static final String ENVIRONMENT_VERSION_KEY_PREFIX = "featureflags:version:";
     private static final long CACHE_TTL_SECONDS = 60;
+    private static final String PATCH_KEY_PREFIX = "featureflags:patch:";
+    private static final long PATCH_TTL_SECONDS = 300;
+    // Further behind than this and a full rebuild is cheaper than fetching patches
+    private static final int MAX_PATCH_CHAIN = 32;
 
     private final RedissonClient redissonClient;
     private final FeatureFlagRepository flagRepository;
+    private final EnvironmentRepository environmentRepository;
+    private final SegmentMembershipCache segmentCache;
+    private final MeterRegistry meterRegistry;
+    private final SnapshotFileStore snapshotFileStore;
+
+    @Value("${featureflag.cache.invalidation-debounce-ms:250}")
+    private long invalidationDebounceMs;
+
+    @Value("${featureflag.cache.invalidation-max-delay-ms:2000}")
+    private long invalidationMaxDelayMs;
+
+    @Value("${featureflag.cache.rebuild-threads:2}")
+    private int rebuildThreads;
+
+    @Value("${featureflag.evaluation.latency-budget-ms:50}")
+    private long latencyBudgetMs;
+
+    @Value("${featureflag.resilience.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${featureflag.resilience.open-ms:5000}")
+    private long circuitOpenMs;
 
     private RMapCache<String, List<FeatureFlag>> flagsCache;
+    private RAtomicLong configVersion;
+
+    private final Map<UUID, EnvironmentCache> environments = new ConcurrentHashMap<>();
+
+    private CircuitBreaker redisBreaker;
+    private CircuitBreaker jdbcBreaker;
+
+    // Rebuilds run off the request thread so a slow load can never exceed the latency
+    // budget; requests that run out of budget keep serving the previous snapshot.
+    // More than one thread, so a large environment's rebuild does not hold up another's
+    private ExecutorService rebuildExecutor;
+
+    private Counter patchesApplied;
+    private Counter patchFallbacks;
+
+    private Counter staleUnreconciled;
+    private Counter staleRedisUnavailable;
+    private Counter staleRebuildPending;
+    private Counter staleRebuildFailed;
+
+    // Invalidations requested within the debounce window are collapsed into one version bump
+    // per environment
+    private final ScheduledExecutorService invalidationExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "flag-cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object invalidationLock = new Object();
+    // Changes committed on this node, counted before the debounced version bump
+    private final AtomicLong localChanges = new AtomicLong();
+    private long pendingSinceNanos = -1;
+    private int pendingInvalidations;
+    private final Set<UUID> pendingEnvironments = new LinkedHashSet<>();
+    private ScheduledFuture<?> pendingFlush;
+
+    private Counter invalidationsRequested;
+    private Counter invalidationsCoalesced;
+    private Counter invalidationsApplied;
 
     @PostConstruct
     public void init() {
         flagsCache = redissonClient.getMapCache(FLAGS_CACHE_KEY);
-        refreshCache();
+        configVersion = redissonClient.getAtomicLong(CONFIG_VERSION_KEY);
+
+        AtomicInteger rebuildThreadCount = new AtomicInteger();
+        rebuildExecutor = Executors.newFixedThreadPool(rebuildThreads, r -> {
+            Thread thread = new Thread(r, "flag-snapshot-rebuild-" + rebuildThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        invalidationsRequested = meterRegistry.counter("featureflag.cache.invalidations.requested");
+        invalidationsCoalesced = meterRegistry.counter("featureflag.cache.invalidations.coalesced");
+        invalidationsApplied = meterRegistry.counter("featureflag.cache.invalidations.applied");
+
+        redisBreaker = new CircuitBreaker("redis", failureThreshold, circuitOpenMs, meterRegistry);
+        jdbcBreaker = new CircuitBreaker("jdbc", failureThreshold, circuitOpenMs, meterRegistry);
+        patchesApplied = meterRegistry.counter("featureflag.snapshot.patches", "outcome", "applied");
+        patchFallbacks = meterRegistry.counter("featureflag.snapshot.patches", "outcome", "full_rebuild");
+        staleUnreconciled = meterRegistry.counter("featureflag.snapshot.stale", "reason", "unreconciled");
+        staleRedisUnavailable = meterRegistry.counter("featureflag.snapshot.stale", "reason", "redis_unavailable");
+        staleRebuildPending = meterRegistry.counter("featureflag.snapshot.stale", "reason", "rebuild_pending");
+        staleRebuildFailed = meterRegistry.counter("featureflag.snapshot.stale", "reason", "rebuild_failed");
+        meterRegistry.gauge("featureflag.snapshot.environments", environments, Map::size);
+
+        Map<UUID, SnapshotFileStore.PersistedSnapshot> persisted = snapshotFileStore.loadAll();
+        if (!persisted.isEmpty()) {
+            // Serve the last good snapshots immediately and catch up in the background
+            for (SnapshotFileStore.PersistedSnapshot restored : persisted.values()) {
+                EnvironmentCache environment = new EnvironmentCache(restored.environmentId(), restored.environmentKey());
+                environment.snapshot = restored.snapshot();
+                environment.reconciled = false;
+                environments.put(environment.id, environment);
+                log.info("Warm start for environment {} from snapshot file: v{} with {} flags, written {}",
+                        environment.key, restored.snapshot().version(), restored.snapshot().flags().size(),
+                        restored.writtenAt());
+            }
+            Thread.ofVirtual().name("flag-snapshot-reconcile").start(this::reconcile);
+        } else {
+            loadAllEnvironments();
+        }
+    }
+
+    // Cold start: compile every environment up front, as a node would have done with a single snapshot.
+    // If the database is not there yet, environments are loaded on first use instead
+    private void loadAllEnvironments() {
+        try {
+            for (Environment environment : jdbcBreaker.call(environmentRepository::findAll)) {
+                reload(environments.computeIfAbsent(environment.getId(),
+                        id -> new EnvironmentCache(id, environment.getKey())));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to load environments: {}", e.getMessage());
+        }
     }
 
-    public List<FeatureFlag> getAllEnabledFlagsWithRules() {
-        List<FeatureFlag> cached = flagsCache.get(ALL_FLAGS_KEY);
+    private void reconcile() {
+        long backoffMs = 500;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<EnvironmentCache> pending = environments.values().stream()
+                    .filter(environment -> !environment.reconciled)
+                    .toList();
+            if (pending.isEmpty()) {
+                return;
+            }
+            for (EnvironmentCache environment : pending) {
+                if (reload(environment)) {
+                    log.info("Reconciled warm-start snapshot of environment {}, now at v{}",
+                            environment.key, environment.snapshot.version());
+                }
+            }
+            if (environments.values().stream().allMatch(environment -> environment.reconciled)) {
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, 30_000);
+        }
+    }
+
+    /**
+     * True once any snapshot, restored or live, is available to evaluate against.
+     */
+    public boolean hasSnapshot() {
+        return environments.values().stream().anyMatch(environment -> environment.snapshot.version() >= 0);
+    }
+
+    public boolean isReconciled() {
+        return environments.values().stream().allMatch(environment -> environment.reconciled);
+    }
+
+    /**
+     * Snapshot version held by this node, by environment key.
+     */
+    public Map<String, Long> getSnapshotVersions() {
+        Map<String, Long> versions = new TreeMap<>();
+        environments.values().forEach(environment -> versions.put(environment.key, environment.snapshot.version()));
+        return versions;
+    }
+
+    /**
+     * The ID of an environment this node holds a snapshot for, by key. Lets
+     * requests naming an environment be served from a restored snapshot
+     * while the database is unreachable.
+     */
+    public Optional<UUID> findEnvironmentId(String key) {
+        return environments.values().stream()
+                .filter(environment -> environment.key.equals(key))
+                .map(environment -> environment.id)
+                .findFirst();
+    }
+
+    public String getRedisCircuitState() {
+        return redisBreaker.getState().name();
+    }
+
+    public String getJdbcCircuitState() {
+        return jdbcBreaker.getState().name();
+    }
+
+    /** Runs a database read behind the same circuit breaker as snapshot loads. */
+    <T> T callDatabase(Supplier<T> action) {
+        return jdbcBreaker.call(action);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+        invalidationExecutor.shutdownNow();
+        flushInvalidations();
+    }
+
+    // Redis entries are keyed by environment and version, so a list loaded before a change can never be
+    // served after it. The Redis copy is only a shortcut: when Redis is failing we go straight to the database.
+    private List<FeatureFlag> loadFlags(EnvironmentCache environment, long version) {
+        String key = flagsKey(environment.id, version);
+        List<FeatureFlag> cached = null;
+        try {
+            cached = redisBreaker.call(() -> flagsCache.get(key));
+        } catch (RuntimeException e) {
+            log.debug("Skipping Redis flag list for {} v{}: {}", environment.key, version, e.getMessage());
+        }
 
         if (cached != null) {
             return cached;
         }
 
-        List<FeatureFlag> flags = flagRepository.findAllEnabledWithRules();
-        flagsCache.put(ALL_FLAGS_KEY, flags, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+        List<FeatureFlag> flags = jdbcBreaker.call(() -> flagRepository.findAllEnabledWithRules(environment.id));
+        try {
+            redisBreaker.call(() -> flagsCache.put(key, flags, CACHE_TTL_SECONDS, TimeUnit.SECONDS));
+        } catch (RuntimeException e) {
+            log.debug("Could not cache flag list for {} v{}: {}", environment.key, version, e.getMessage());
+        }
         return flags;
     }
 
-    public FeatureFlag getFlagByNameWithRules(String name) {
-        List<FeatureFlag> allFlags = getAllEnabledFlagsWithRules();
-        return allFlags.stream()
-                .filter(f -> f.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    private FlagSnapshot compile(long version, List<FeatureFlag> flags) {
+        // Segment memberships are read from the database while compiling
+        return jdbcBreaker.call(() -> FlagSnapshot.compile(version, flags, segmentCache.resolver()));
+    }
+
+    /**
+     * Returns the compiled snapshot for the environment's current config
+     * version. Only a version change (any node invalidating the environment)
+     * triggers a reload and recompile.
+     *
+     * <p>The call is bounded by the evaluation latency budget: if Redis is slow
+     * or its circuit is open, or the rebuild for a new version does not finish
+     * in time, the last known snapshot is returned flagged as stale. Only a node
+     * that has never loaded the environment waits for (or fails on) the load.
+     */
+    public SnapshotRead getSnapshot(Environment target) {
+        EnvironmentCache environment = environments.computeIfAbsent(target.getId(),
+                id -> new EnvironmentCache(id, target.getKey()));
+        FlagSnapshot current = environment.snapshot;
+        boolean hasFallback = current.version() >= 0;
+        if (!environment.reconciled && hasFallback) {
+            // Restored from disk; keep serving it until the background reconcile lands
+            staleUnreconciled.increment();
+            return new SnapshotRead(current, true);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs);
+        Long version = readVersion(environment.version, deadline);
+        if (version == null) {
+            if (hasFallback) {
+                staleRedisUnavailable.increment();
+                return new SnapshotRead(current, true);
+            }
+            throw new DependencyUnavailableException("Flag configuration is unavailable");
+        }
+        if (current.version() == version) {
+            return new SnapshotRead(current, false);
+        }
+
+        CompletableFuture<FlagSnapshot> rebuild = rebuild(environment, version);
+        try {
+            FlagSnapshot rebuilt = hasFallback
+                    ? rebuild.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    : rebuild.get();
+            return new SnapshotRead(rebuilt, false);
+        } catch (TimeoutException e) {
+            staleRebuildPending.increment();
+            return new SnapshotRead(current, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (hasFallback) {
+                return new SnapshotRead(current, true);
+            }
+            throw new DependencyUnavailableException("Interrupted while loading flag configuration");
+        } catch (ExecutionException e) {
+            if (hasFallback) {
+                staleRebuildFailed.increment();
+                return new SnapshotRead(current, true);
+            }
+            throw new DependencyUnavailableException("Flag configuration is unavailable", e.getCause());
+        }
+    }
+
+    /**
+     * Version that cached admin reads are keyed on: the shared config version,
+     * which every node's committed changes in any environment eventually bump,
+     * plus the changes committed on this node that are still waiting out the
+     * invalidation debounce, so an editor always reads back their own change.
+     * Null if Redis cannot be read within the latency budget.
+     */
+    public ReadVersion getReadVersion() {
+        long local = localChanges.get();
+        Long version = readVersion(configVersion, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs));
+        return version != null ? new ReadVersion(version, local) : null;
+    }
+
+    private Long readVersion(RAtomicLong counter, long deadlineNanos) {
+        if (!redisBreaker.tryAcquire()) {
+            return null;
+        }
+        try {
+            long version = counter.getAsync().toCompletableFuture()
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            redisBreaker.onSuccess();
+            return version;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            redisBreaker.onFailure();
+            return null;
+        } catch (Exception e) {
+            // Timeouts count as failures: a Redis that answers too late is as good as down
+            redisBreaker.onFailure();
+            return null;
+        }
+    }
+
+    // One rebuild per environment and version; requests arriving while it runs share the same future
+    private CompletableFuture<FlagSnapshot> rebuild(EnvironmentCache environment, long version) {
+        synchronized (environment) {
+            if (environment.pendingRebuild != null && environment.pendingRebuildVersion == version
+                    && !environment.pendingRebuild.isCompletedExceptionally()) {
+                return environment.pendingRebuild;
+            }
+            environment.pendingRebuildVersion = version;
+            environment.pendingRebuild = CompletableFuture.supplyAsync(() -> {
+                FlagSnapshot rebuilt = patchOrCompile(environment, version);
+                synchronized (environment) {
+                    // Rebuilds run in parallel, so an older one can finish last. Only the version
+                    // requested most recently is installed, whatever its number, which also holds
+                    // across a Redis counter reset
+                    if (version != environment.pendingRebuildVersion) {
+                        log.debug("Discarded flag snapshot {} v{}, superseded by v{}",
+                                environment.key, version, environment.pendingRebuildVersion);
+                        return rebuilt;
+                    }
+                    environment.snapshot = rebuilt;
+                    snapshotFileStore.saveAsync(environment.id, environment.key, rebuilt);
+                }
+                log.debug("Compiled flag snapshot {} v{} with {} flags",
+                        environment.key, version, rebuilt.flags().size());
+                return rebuilt;
+            }, rebuildExecutor);
+            return environment.pendingRebuild;
+        }
     }
 
-    public void invalidateCache() {
-        flagsCache.remove(ALL_FLAGS_KEY);
-        log.info("Flag cache invalidated");
+    private FlagSnapshot patchOrCompile(EnvironmentCache environment, long version) {
+        FlagSnapshot base = environment.snapshot;
+        long behind = version - base.version();
+        if (environment.reconciled && base.version() >= 0 && behind > 0 && behind <= MAX_PATCH_CHAIN) {
+            FlagSnapshot patched = applyPatches(environment.id, base, version);
+            if (patched != null) {
+                patchesApplied.increment(behind);
+                return patched;
+            }
+            patchFallbacks.increment();
+        }
+        return compile(version, loadFlags(environment, version));
+    }
+
+    // Null unless every version between the base and the target was published as a patch
+    private FlagSnapshot applyPatches(UUID environmentId, FlagSnapshot base, long version) {
+        String[] keys = LongStream.rangeClosed(base.version() + 1, version)
+                .mapToObj(v -> patchKey(environmentId, v))
+                .toArray(String[]::new);
+        Map<String, String> patches;
+        try {
+            patches = redisBreaker.call(() -> redissonClient.getBuckets(StringCodec.INSTANCE).get(keys));
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        FlagSnapshot current = base;
+        for (long v = base.version() + 1; v <= version; v++) {
+            String patch = patches.get(patchKey(environmentId, v));
+            if (patch == null) {
+                return null;
+            }
+            int separator = patch.lastIndexOf(':');
+            current = current.withRollout(UUID.fromString(patch.substring(0, separator)),
+                    Integer.parseInt(patch.substring(separator + 1)), v);
+        }
+        return current;
+    }
+
+    /**
+     * Publishes an already committed rollout-percentage change as the patch
+     * for a new config version of the flag's environment. Nodes a few
+     * versions behind apply the chain of patches to their snapshot in place
+     * instead of reloading and recompiling; any gap in the chain (an ordinary
+     * invalidation, an expired patch, a node that saw the version before the
+     * patch landed) means a full rebuild.
+     */
+    public void publishRolloutPatch(UUID environmentId, UUID flagId, int rolloutPercentage) {
+        long version = redisBreaker.call(versionCounter(environmentId)::incrementAndGet);
+        redisBreaker.call(() -> {
+            redissonClient.<String>getBucket(patchKey(environmentId, version), StringCodec.INSTANCE)
+                    .set(flagId + ":" + rolloutPercentage, Duration.ofSeconds(PATCH_TTL_SECONDS));
+            return null;
+        });
+        // Admin reads of the flag must not keep serving the old percentage
+        redisBreaker.call(configVersion::incrementAndGet);
+        log.info("Published rollout patch for environment {} v{}: flag {} -> {}%",
+                environmentId, version, flagId, rolloutPercentage);
+    }
+
+    /**
+     * Requests a rebuild of one environment's snapshot. Inside a transaction
+     * the request is deferred until after commit, so no node can re-cache the
+     * pre-commit state; rolled back changes never invalidate. Requests are
+     * then debounced: each pending environment's version is bumped once the
+     * writes go quiet for the debounce window, and never later than the max
+     * delay after the first pending request. Other environments are untouched.
+     */
+    public void invalidateCache(UUID environmentId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestInvalidation(environmentId);
+                }
+            });
+        } else {
+            requestInvalidation(environmentId);
+        }
+    }
+
+    private void requestInvalidation(UUID environmentId) {
+        localChanges.incrementAndGet();
+        invalidationsRequested.increment();
+        synchronized (invalidationLock) {
+            long now = System.nanoTime();
+            if (pendingSinceNanos < 0) {
+                pendingSinceNanos = now;
+            }
+            pendingInvalidations++;
+            pendingEnvironments.add(environmentId);
+
+            long deadline = Math.min(
+                    now + TimeUnit.MILLISECONDS.toNanos(invalidationDebounceMs),
+                    pendingSinceNanos + TimeUnit.MILLISECONDS.toNanos(invalidationMaxDelayMs));
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+            }
+            pendingFlush = invalidationExecutor.schedule(
+                    this::flushInvalidations, Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushInvalidations() {
+        int coalesced;
+        List<UUID> environmentIds;
+        synchronized (invalidationLock) {
+            if (pendingInvalidations == 0) {
+                return;
+            }
+            coalesced = pendingInvalidations - pendingEnvironments.size();
+            environmentIds = List.copyOf(pendingEnvironments);
+            pendingInvalidations = 0;
+            pendingEnvironments.clear();
+            pendingSinceNanos = -1;
+            pendingFlush = null;
+        }
+
+        try {
+            // Bumped first: if Redis is failing nothing has moved yet, and the whole batch is retried
+            configVersion.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Failed to invalidate flag cache, retrying: {}", e.getMessage());
+            if (!invalidationExecutor.isShutdown()) {
+                environmentIds.forEach(this::requestInvalidation);
+            }
+            return;
+        }
+
+        List<UUID> failed = new ArrayList<>();
+        for (UUID environmentId : environmentIds) {
+            try {
+                long version = versionCounter(environmentId).incrementAndGet();
+                flagsCache.remove(flagsKey(environmentId, version - 1));
+                invalidationsApplied.increment();
+                log.info("Flag cache of environment {} invalidated to v{}", environmentId, version);
+            } catch (Exception e) {
+                log.error("Failed to invalidate flag cache of environment {}, retrying: {}",
+                        environmentId, e.getMessage());
+                failed.add(environmentId);
+            }
+        }
+        invalidationsCoalesced.increment(coalesced);
+        if (!invalidationExecutor.isShutdown()) {
+            failed.forEach(this::requestInvalidation);
+        }
     }
 
     @Scheduled(fixedRate = 30000) // Refresh every 30 seconds
     public void refreshCache() {
+        pruneEnvironments();
+        environments.values().forEach(this::reload);
+    }
+
+    // Environments deleted on any node are dropped here, along with their snapshot files
+    private void pruneEnvironments() {
+        Set<UUID> existing;
         try {
-            List<FeatureFlag> flags = flagRepository.findAllEnabledWithRules();
-            flagsCache.put(ALL_FLAGS_KEY, flags, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
-            log.debug("Flag cache refreshed with {} flags", flags.size());
+            existing = jdbcBreaker.call(environmentRepository::findAllIds);
+        } catch (RuntimeException e) {
+            return;
+        }
+        for (EnvironmentCache environment : List.copyOf(environments.values())) {
+            if (!existing.contains(environment.id) && environments.remove(environment.id, environment)) {
+                snapshotFileStore.deleteAsync(environment.id);
+                log.info("Dropped snapshot of deleted environment {}", environment.key);
+            }
+        }
+    }
+
+    private boolean reload(EnvironmentCache environment) {
+        try {
+            // Read the version first so a concurrent invalidation forces another rebuild
+            long version = redisBreaker.call(environment.version::get);
+            List<FeatureFlag> flags = jdbcBreaker.call(() -> flagRepository.findAllEnabledWithRules(environment.id));
+            try {
+                redisBreaker.call(() -> flagsCache.put(
+                        flagsKey(environment.id, version), flags, CACHE_TTL_SECONDS, TimeUnit.SECONDS));
+            } catch (RuntimeException e) {
+                log.debug("Could not cache flag list for {} v{}: {}", environment.key, version, e.getMessage());
+            }
+            FlagSnapshot rebuilt = compile(version, flags);
+            synchronized (environment) {
+                // A restored snapshot may carry a version from before a Redis reset; always replace it
+                if (version >= environment.snapshot.version() || !environment.reconciled) {
+                    environment.snapshot = rebuilt;
+                    snapshotFileStore.saveAsync(environment.id, environment.key, rebuilt);
+                }
+                environment.reconciled = true;
+            }
+            log.debug("Flag cache of environment {} refreshed with {} flags", environment.key, flags.size());
+            return true;
         } catch (Exception e) {
-            log.error("Failed to refresh flag cache: {}", e.getMessage());
+            log.error("Failed to refresh flag cache of environment {}: {}", environment.key, e.getMessage());
+            return false;
+        }
+    }
+
+    private RAtomicLong versionCounter(UUID environmentId) {
+        return redissonClient.getAtomicLong(ENVIRONMENT_VERSION_KEY_PREFIX + environmentId);
+    }
+
+    private static String flagsKey(UUID environmentId, long version) {
+        return ALL_FLAGS_KEY + ":" + environmentId + ":" + version;
+    }
+
+    private static String patchKey(UUID environmentId, long version) {
+        return PATCH_KEY_PREFIX + environmentId + ":" + version;
+    }
+
+    // One environment's snapshot and rebuild state; snapshot swaps and rebuilds lock on it
+    private final class EnvironmentCache {
+
+        final UUID id;
+        final String key;
+        final RAtomicLong version;
+
+        // Compiled rules for the current config version, rebuilt only when the version moves
+        volatile FlagSnapshot snapshot = FlagSnapshot.EMPTY;
+
+        // False while serving a snapshot restored from disk that has not yet been
+        // checked against Redis and the database
+        volatile boolean reconciled = true;
+
+        CompletableFuture<FlagSnapshot> pendingRebuild;
+        long pendingRebuildVersion = -1;
+
+        EnvironmentCache(UUID id, String key) {
+            this.id = id;
+            this.key = key;
+            this.version = versionCounter(id);
         }
     }
+
+    /**
+     * A snapshot together with whether it is known to lag the current config
+     * version (or could not be checked against it).
+     */
+    public record SnapshotRead(FlagSnapshot snapshot, boolean stale) {}
+
+    public record ReadVersion(long config, long localChanges) {}
 }
@@ -1,22 +1,31 @@
 package com.featureflag.service;
 
+import com.featureflag.dto.CompactEvaluationResponse;
 import com.featureflag.dto.EvaluationResponse;
 import com.featureflag.dto.EvaluationResponse.EvaluationDetail;
 import com.featureflag.dto.UserContext;
+import com.featureflag.entity.Environment;
 import com.featureflag.entity.FeatureFlag;
-import com.featureflag.entity.FlagEvaluation;
 import com.featureflag.entity.FlagRule;
 import com.featureflag.enums.EvaluationReason;
-import com.featureflag.enums.RuleType;
-import com.featureflag.repository.FlagEvaluationRepository;
+import com.featureflag.evaluation.CompiledFlag;
+import com.featureflag.evaluation.CompiledRule;
+import com.featureflag.evaluation.EvaluationEvent;
+import com.featureflag.evaluation.FlagSnapshot;
+import com.featureflag.evaluation.VariantTable;
 import com.featureflag.repository.FeatureFlagRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
@@ -24,34 +33,163 @@ import java.util.*;
 public class FlagEvaluationService {
 
     private final FeatureFlagRepository flagRepository;
-    private final FlagEvaluationRepository evaluationRepository;
+    private final EvaluationSpool evaluationSpool;
+    private final ExposureDeduplicator exposureDeduplicator;
     private final FlagCacheService cacheService;
+    private final UniqueUserTracker uniqueUserTracker;
+    private final LiveAnalyticsService liveAnalyticsService;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional(readOnly = true)
-    public EvaluationResponse evaluateAllFlags(UserContext user) {
-        List<FeatureFlag> flags = cacheService.getAllEnabledFlagsWithRules();
+    @Value("${featureflag.evaluation.memo.enabled:true}")
+    private boolean memoEnabled;
 
-        Map<String, Boolean> results = new HashMap<>();
-        Map<String, EvaluationDetail> details = new HashMap<>();
+    @Value("${featureflag.evaluation.memo.max-size-mb:64}")
+    private long memoMaxSizeMb;
 
-        for (FeatureFlag flag : flags) {
-            EvaluationResult evalResult = evaluateFlag(flag, user);
-            results.put(flag.getName(), evalResult.result);
-            details.put(flag.getName(), evalResult.detail);
+    // All-flags results are a pure function of (environment, snapshot version, user context),
+    // so repeat callers within a version are served from here
+    private Cache<MemoKey, MemoizedEvaluation> memo;
+    // Snapshot version each environment's memo entries were last computed at
+    private final Map<UUID, Long> memoVersions = new ConcurrentHashMap<>();
 
-            // Log evaluation asynchronously
-            logEvaluationAsync(flag, user.getUserId(), evalResult);
+    @PostConstruct
+    public void init() {
+        if (!memoEnabled) {
+            return;
         }
+        memo = Caffeine.newBuilder()
+                .maximumWeight(memoMaxSizeMb * 1024 * 1024)
+                .weigher((MemoKey key, MemoizedEvaluation value) -> value.estimatedBytes(key))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memo, "evaluationMemo");
+    }
+
+    // Deliberately not a read-only transaction: snapshot reloads must read the
+    // primary (replicas may lag the config version) and evaluation logging writes
+    public EvaluationResponse evaluateAllFlags(Environment environment, UserContext user) {
+        FlagCacheService.SnapshotRead read = cacheService.getSnapshot(environment);
+        MemoizedEvaluation evaluation = evaluateAll(environment.getId(), read.snapshot(), user);
 
+        // The memoized response is shared across callers; staleness belongs to this request only
+        EvaluationResponse memoized = evaluation.response();
         return EvaluationResponse.builder()
-                .flags(results)
-                .details(details)
+                .flags(memoized.getFlags())
+                .details(memoized.getDetails())
+                .variants(memoized.getVariants())
+                .environment(environment.getKey())
+                .snapshotVersion(read.snapshot().version())
+                .stale(read.stale())
+                .build();
+    }
+
+    /**
+     * Same evaluation as {@link #evaluateAllFlags}, as a result bitset in
+     * snapshot flag order. Flag names are only included when the caller does
+     * not already hold them for this snapshot version of the environment.
+     */
+    public CompactEvaluationResponse evaluateAllFlagsCompact(Environment environment, UserContext user,
+                                                             Long knownVersion) {
+        FlagCacheService.SnapshotRead read = cacheService.getSnapshot(environment);
+        FlagSnapshot snapshot = read.snapshot();
+        MemoizedEvaluation evaluation = evaluateAll(environment.getId(), snapshot, user);
+
+        List<String> flagNames = null;
+        if (knownVersion == null || knownVersion != snapshot.version()) {
+            flagNames = snapshot.flags().stream().map(CompiledFlag::name).toList();
+        }
+        return CompactEvaluationResponse.builder()
+                .environment(environment.getKey())
+                .snapshotVersion(snapshot.version())
+                .stale(read.stale())
+                .flagCount(snapshot.flags().size())
+                .flagNames(flagNames)
+                .results(evaluation.resultBits())
+                .build();
+    }
+
+    private MemoizedEvaluation evaluateAll(UUID environmentId, FlagSnapshot snapshot, UserContext user) {
+        MemoizedEvaluation evaluation;
+        if (memo != null) {
+            long version = snapshot.version();
+            Long previous = memoVersions.get(environmentId);
+            if (previous == null) {
+                memoVersions.putIfAbsent(environmentId, version);
+            } else if (previous != version && memoVersions.replace(environmentId, previous, version)) {
+                // This environment's older entries can never hit again; free them now.
+                // Other environments' entries stay, their versions have not moved
+                memo.asMap().keySet().removeIf(key -> key.environmentId().equals(environmentId)
+                        && key.version() != version);
+            }
+            evaluation = memo.get(new MemoKey(environmentId, version, normalize(user)),
+                    key -> evaluateSnapshot(snapshot, user));
+        } else {
+            evaluation = evaluateSnapshot(snapshot, user);
+        }
+
+        for (FlagOutcome outcome : evaluation.outcomes()) {
+            // Log evaluation asynchronously
+            logEvaluation(outcome.flag(), user.getUserId(), outcome.result());
+            uniqueUserTracker.record(outcome.flag().getId(), user.getUserId(), outcome.result().result);
+            liveAnalyticsService.record(outcome.flag().getId(), outcome.result().result);
+        }
+        heavyHitterTracker.record(evaluation.flagIds(), user.getUserId());
+
+        return evaluation;
+    }
+
+    private MemoizedEvaluation evaluateSnapshot(FlagSnapshot snapshot, UserContext user) {
+        Map<String, Boolean> results = new HashMap<>();
+        Map<String, EvaluationDetail> details = new HashMap<>();
+        Map<String, String> variants = new HashMap<>();
+        List<FlagOutcome> outcomes = new ArrayList<>(snapshot.flags().size());
+        byte[] resultBits = new byte[(snapshot.flags().size() + 7) / 8];
+        // Flags are in dependency order, so every prerequisite's result is already here
+        boolean[] evaluated = new boolean[snapshot.flags().size()];
+
+        for (CompiledFlag flag : snapshot.flags()) {
+            EvaluationResult evalResult = evaluateFlag(flag, user, evaluated);
+            evaluated[flag.index()] = evalResult.result;
+            results.put(flag.name(), evalResult.result);
+            details.put(flag.name(), evalResult.detail);
+            if (evalResult.variant != null) {
+                variants.put(flag.name(), evalResult.variant);
+            }
+            if (evalResult.result) {
+                int index = outcomes.size();
+                resultBits[index >> 3] |= (byte) (1 << (index & 7));
+            }
+            outcomes.add(new FlagOutcome(flag.flag(), evalResult));
+        }
+
+        EvaluationResponse response = EvaluationResponse.builder()
+                .flags(Collections.unmodifiableMap(results))
+                .details(Collections.unmodifiableMap(details))
+                .variants(Collections.unmodifiableMap(variants))
                 .build();
+        List<UUID> flagIds = outcomes.stream().map(outcome -> outcome.flag().getId()).toList();
+        return new MemoizedEvaluation(response, List.copyOf(outcomes), flagIds, resultBits);
+    }
+
+    // Every input a rule can read, with attributes in a canonical order. Case is kept
+    // as-is because REGEX and IN_SET rules can address email and country by name.
+    private static String normalize(UserContext user) {
+        StringBuilder key = new StringBuilder()
+                .append(user.getUserId()).append('\u0000')
+                .append(user.getEmail() != null ? user.getEmail() : "").append('\u0000')
+                .append(user.getCountry() != null ? user.getCountry() : "");
+        if (user.getAttributes() != null && !user.getAttributes().isEmpty()) {
+            new TreeMap<>(user.getAttributes()).forEach((name, value) ->
+                    key.append('\u0000').append(name).append('=').append(value));
+        }
+        return key.toString();
     }
 
-    @Transactional(readOnly = true)
-    public EvaluationResponse evaluateSingleFlag(String flagName, UserContext user) {
-        FeatureFlag flag = cacheService.getFlagByNameWithRules(flagName);
+    public EvaluationResponse evaluateSingleFlag(Environment environment, String flagName, UserContext user) {
+        FlagCacheService.SnapshotRead read = cacheService.getSnapshot(environment);
+        FlagSnapshot snapshot = read.snapshot();
+        CompiledFlag flag = snapshot.getFlag(flagName);
 
         if (flag == null) {
             return EvaluationResponse.builder()
@@ -61,19 +199,72 @@ public class FlagEvaluationService {
                             .reason(EvaluationReason.FLAG_DISABLED)
                             .explanation("Flag not found: " + flagName)
                             .build()))
+                    .environment(environment.getKey())
+                    .snapshotVersion(read.snapshot().version())
+                    .stale(read.stale())
                     .build();
         }
 
-        EvaluationResult evalResult = evaluateFlag(flag, user);
-        logEvaluationAsync(flag, user.getUserId(), evalResult);
+        EvaluationResult evalResult = evaluateFlag(flag, user, evaluatePrerequisites(snapshot, flag, user));
+        logEvaluation(flag.flag(), user.getUserId(), evalResult);
+        uniqueUserTracker.record(flag.flag().getId(), user.getUserId(), evalResult.result);
+        liveAnalyticsService.record(flag.flag().getId(), evalResult.result);
+        heavyHitterTracker.record(flag.flag().getId(), user.getUserId());
 
         return EvaluationResponse.builder()
                 .flags(Map.of(flagName, evalResult.result))
                 .details(Map.of(flagName, evalResult.detail))
+                .variants(evalResult.variant != null ? Map.of(flagName, evalResult.variant) : Map.of())
+                .environment(environment.getKey())
+                .snapshotVersion(read.snapshot().version())
+                .stale(read.stale())
                 .build();
     }
 
-    private EvaluationResult evaluateFlag(FeatureFlag flag, UserContext user) {
+    // Evaluates each flag the target transitively depends on once, lowest index first
+    private boolean[] evaluatePrerequisites(FlagSnapshot snapshot, CompiledFlag target, UserContext user) {
+        boolean[] evaluated = new boolean[snapshot.flags().size()];
+        if (target.prerequisites().isEmpty()) {
+            return evaluated;
+        }
+
+        BitSet needed = new BitSet(snapshot.flags().size());
+        Deque<CompiledFlag> pending = new ArrayDeque<>(List.of(target));
+        while (!pending.isEmpty()) {
+            for (CompiledFlag.Prerequisite prerequisite : pending.pop().prerequisites()) {
+                if (prerequisite.isAvailable() && !needed.get(prerequisite.index())) {
+                    needed.set(prerequisite.index());
+                    pending.push(snapshot.flags().get(prerequisite.index()));
+                }
+            }
+        }
+        for (int i = needed.nextSetBit(0); i >= 0; i = needed.nextSetBit(i + 1)) {
+            evaluated[i] = evaluateFlag(snapshot.flags().get(i), user, evaluated).result;
+        }
+        return evaluated;
+    }
+
+    /**
+     * Evaluates one flag. {@code evaluated} must already hold the results of
+     * its prerequisites, indexed by snapshot position. Users the flag is on
+     * for are assigned a variant when the flag has any.
+     */
+    private EvaluationResult evaluateFlag(CompiledFlag compiled, UserContext user, boolean[] evaluated) {
+        EvaluationResult result = evaluateTargeting(compiled, user, evaluated);
+        if (!result.result || compiled.variants() == null) {
+            return result;
+        }
+
+        VariantTable table = compiled.variants();
+        int index = table.assign(compiled.name(), user.getUserId());
+        result.detail.setVariant(table.key(index));
+        result.detail.setVariantValue(table.value(index));
+        return new EvaluationResult(true, result.detail, result.matchedRule, table.key(index));
+    }
+
+    private EvaluationResult evaluateTargeting(CompiledFlag compiled, UserContext user, boolean[] evaluated) {
+        FeatureFlag flag = compiled.flag();
+
         // Check if flag is globally disabled
         if (!flag.isEnabled()) {
             return new EvaluationResult(
@@ -87,28 +278,35 @@ public class FlagEvaluationService {
             );
         }
 
-        // Check targeting rules (in priority order)
-        List<FlagRule> rules = flag.getRules();
-        if (rules != null && !rules.isEmpty()) {
-            // Sort by priority descending
-            rules.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
-
-            for (FlagRule rule : rules) {
-                if (!rule.isEnabled()) continue;
-
-                if (matchesRule(rule, user)) {
-                    return new EvaluationResult(
-                            true,
-                            EvaluationDetail.builder()
-                                    .result(true)
-                                    .reason(EvaluationReason.RULE_MATCH)
-                                    .matchedRuleId(rule.getId())
-                                    .explanation(String.format("Matched rule: %s = %s",
-                                            rule.getRuleType(), rule.getRuleValue()))
-                                    .build(),
-                            rule
-                    );
-                }
+        for (CompiledFlag.Prerequisite prerequisite : compiled.prerequisites()) {
+            if (!prerequisite.isAvailable() || !evaluated[prerequisite.index()]) {
+                return new EvaluationResult(
+                        false,
+                        EvaluationDetail.builder()
+                                .result(false)
+                                .reason(EvaluationReason.PREREQUISITE_FAILED)
+                                .explanation(prerequisite.isAvailable()
+                                        ? "Prerequisite flag is off: " + prerequisite.name()
+                                        : "Prerequisite flag is disabled or missing: " + prerequisite.name())
+                                .build(),
+                        null
+                );
+            }
+        }
+
+        // Check targeting rules (already filtered to enabled and sorted by priority)
+        for (CompiledRule rule : compiled.rules()) {
+            if (rule.matches(user)) {
+                return new EvaluationResult(
+                        true,
+                        EvaluationDetail.builder()
+                                .result(true)
+                                .reason(EvaluationReason.RULE_MATCH)
+                                .matchedRuleId(rule.rule().getId())
+                                .explanation(rule.explanation())
+                                .build(),
+                        rule.rule()
+                );
             }
         }
 
@@ -140,19 +338,6 @@ public class FlagEvaluationService {
         }
     }
 
-    private boolean matchesRule(FlagRule rule, UserContext user) {
-        return switch (rule.getRuleType()) {
-            case USER_ID -> rule.getRuleValue().equals(user.getUserId());
-            case EMAIL_EXACT -> user.getEmail() != null &&
-                    rule.getRuleValue().equalsIgnoreCase(user.getEmail());
-            case EMAIL_DOMAIN -> user.getEmail() != null &&
-                    user.getEmail().toLowerCase().endsWith(rule.getRuleValue().toLowerCase());
-            case COUNTRY -> user.getCountry() != null &&
-                    rule.getRuleValue().equalsIgnoreCase(user.getCountry());
-            case PERCENTAGE_GROUP -> isInPercentageGroup(rule.getRuleValue(), user.getUserId());
-        };
-    }
-
     private boolean isInRolloutPercentage(FeatureFlag flag, String userId) {
         if (flag.getRolloutPercentage() >= 100) return true;
         if (flag.getRolloutPercentage() <= 0) return false;
@@ -166,34 +351,44 @@ public class FlagEvaluationService {
         return bucket < flag.getRolloutPercentage();
     }
 
-    private boolean isInPercentageGroup(String ruleValue, String userId) {
-        try {
-            int percentage = Integer.parseInt(ruleValue);
-            int hash = Math.abs(userId.hashCode());
-            int bucket = hash % 100;
-            return bucket < percentage;
-        } catch (NumberFormatException e) {
-            return false;
+    // Appends to the local spool; the database write happens later in EvaluationShipper.
+    // Repeat exposures are only counted, and logged in aggregate by ExposureDeduplicator
+    private void logEvaluation(FeatureFlag flag, String userId, EvaluationResult result) {
+        UUID ruleId = result.matchedRule != null ? result.matchedRule.getId() : null;
+        if (exposureDeduplicator.suppress(flag.getId(), userId, result.result, ruleId, result.variant,
+                result.detail.getReason())) {
+            return;
         }
+        evaluationSpool.append(new EvaluationEvent(
+                UUID.randomUUID(),
+                flag.getId(),
+                userId,
+                result.result,
+                ruleId,
+                result.variant,
+                result.detail.getReason(),
+                System.currentTimeMillis(),
+                1));
     }
 
-    @Async
-    protected void logEvaluationAsync(FeatureFlag flag, String userId, EvaluationResult result) {
-        try {
-            FlagEvaluation evaluation = FlagEvaluation.builder()
-                    .flag(flag)
-                    .userId(userId)
-                    .result(result.result)
-                    .matchedRule(result.matchedRule)
-                    .evaluationReason(result.detail.getReason())
-                    .build();
+    private record EvaluationResult(boolean result, EvaluationDetail detail, FlagRule matchedRule, String variant) {
 
-            evaluationRepository.save(evaluation);
-        } catch (Exception e) {
-            log.error("Failed to log evaluation for flag {} and user {}: {}",
-                    flag.getName(), userId, e.getMessage());
+        EvaluationResult(boolean result, EvaluationDetail detail, FlagRule matchedRule) {
+            this(result, detail, matchedRule, null);
         }
     }
 
-    private record EvaluationResult(boolean result, EvaluationDetail detail, FlagRule matchedRule) {}
+    private record FlagOutcome(FeatureFlag flag, EvaluationResult result) {}
+
+    private record MemoKey(UUID environmentId, long version, String context) {}
+
+    private record MemoizedEvaluation(EvaluationResponse response, List<FlagOutcome> outcomes, List<UUID> flagIds,
+                                      byte[] resultBits) {
+
+        // Rough retained size: key string plus two map entries, an outcome and an ID slot per flag
+        int estimatedBytes(MemoKey key) {
+            return 128 + key.context().length() * 2 + outcomes.size() * 200 + resultBits.length
+                    + response.getVariants().size() * 64;
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package com.featureflag.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Admin-side read model: flag and rule responses cached per config version.
+ * Every committed change moves the version (see
+ * {@link FlagCacheService#getReadVersion()}), so a cached response can only
+ * be served while the configuration it was read from is still current, and
+ * any number of open management screens cost one Redis read per request
+ * instead of a database query.
+ *
+ * <p>If the version cannot be read, the cache is bypassed rather than risk
+ * serving a stale response.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlagReadModel {
+
+    private final FlagCacheService cacheService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.cache.admin-reads.enabled:true}")
+    private boolean enabled;
+
+    @Value("${featureflag.cache.admin-reads.max-entries:10000}")
+    private long maxEntries;
+
+    // Upper bound on an entry's life should version numbers ever repeat (Redis reset)
+    @Value("${featureflag.cache.admin-reads.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<ReadKey, Object> cache;
+    private final AtomicReference<FlagCacheService.ReadVersion> currentVersion = new AtomicReference<>();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "adminReads");
+    }
+
+    /**
+     * Returns the cached value for {@code kind}/{@code id} at the current
+     * config version, loading it with {@code loader} on a miss. The loader
+     * must read the primary: a lagging replica could return data older than
+     * the version it would be cached under.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, Object id, Supplier<T> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        FlagCacheService.ReadVersion version = cacheService.getReadVersion();
+        if (version == null) {
+            return loader.get();
+        }
+        FlagCacheService.ReadVersion previous = currentVersion.get();
+        if (!version.equals(previous) && currentVersion.compareAndSet(previous, version)) {
+            // Entries from older versions can never hit again; free them now
+            cache.invalidateAll();
+        }
+        // The version is part of the key, so a load racing a version change is never served under the new one
+        return (T) cache.get(new ReadKey(version, kind, id), key -> loader.get());
+    }
+
+    private record ReadKey(FlagCacheService.ReadVersion version, String kind, Object id) {}
+}
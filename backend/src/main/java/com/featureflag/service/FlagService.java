@@ -1,19 +1,39 @@
 package com.featureflag.service;
 
 import com.featureflag.dto.*;
+import com.featureflag.entity.Environment;
 import com.featureflag.entity.FeatureFlag;
 import com.featureflag.entity.FlagRule;
+import com.featureflag.entity.FlagVariant;
+import com.featureflag.evaluation.RuleCompiler;
+import com.featureflag.evaluation.SegmentMembership;
 import com.featureflag.exception.FlagNotFoundException;
 import com.featureflag.exception.DuplicateFlagException;
 import com.featureflag.exception.DuplicateRuleException;
 import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.repository.FlagBulkRepository;
+import com.featureflag.repository.FlagBulkRepository.Selection;
+import com.featureflag.repository.FlagPrerequisiteRepository;
+import com.featureflag.repository.FlagQueryRepository;
+import com.featureflag.repository.FlagRuleBatchRepository;
 import com.featureflag.repository.FlagRuleRepository;
+import com.featureflag.repository.SegmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,17 +42,33 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FlagService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final FeatureFlagRepository flagRepository;
     private final FlagRuleRepository ruleRepository;
+    private final FlagRuleBatchRepository ruleBatchRepository;
+    private final FlagQueryRepository flagQueryRepository;
+    private final SegmentRepository segmentRepository;
+    private final FlagPrerequisiteRepository prerequisiteRepository;
+    private final FlagBulkRepository bulkRepository;
     private final FlagCacheService cacheService;
+    private final FlagReadModel readModel;
+    private final EnvironmentService environmentService;
+
+    // Calls that take an environment key scope to that environment (the default one when null);
+    // calls by flag or rule ID act in whichever environment the flag belongs to
 
     @Transactional
-    public FlagResponse createFlag(CreateFlagRequest request) {
-        if (flagRepository.existsByName(request.getName())) {
-            throw new DuplicateFlagException("Flag already exists: " + request.getName());
+    public FlagResponse createFlag(String environmentKey, CreateFlagRequest request) {
+        Environment environment = environmentService.resolve(environmentKey);
+        if (flagRepository.existsByEnvironmentIdAndName(environment.getId(), request.getName())) {
+            throw new DuplicateFlagException(String.format(
+                    "Flag already exists in %s: %s", environment.getKey(), request.getName()));
         }
 
         FeatureFlag flag = FeatureFlag.builder()
+                .environmentId(environment.getId())
                 .name(request.getName())
                 .description(request.getDescription())
                 .enabled(request.isEnabled())
@@ -41,33 +77,88 @@ public class FlagService {
                 .build();
 
         flag = flagRepository.save(flag);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(environment.getId());
 
-        log.info("Created flag: {} by {}", flag.getName(), request.getCreatedBy());
+        log.info("Created flag: {} in {} by {}", flag.getName(), environment.getKey(), request.getCreatedBy());
         return FlagResponse.fromEntity(flag);
     }
 
-    @Transactional(readOnly = true)
+    // Not read-only: misses must read the primary, since the response is cached under the
+    // current config version and a replica may not have caught up with it. Hits never
+    // touch the database, the connection is only acquired on first use.
+    @Transactional
     public FlagResponse getFlag(UUID id) {
-        FeatureFlag flag = flagRepository.findByIdWithRules(id)
-                .orElseThrow(() -> new FlagNotFoundException(id));
-        return FlagResponse.fromEntity(flag);
+        return readModel.get("flag", id, () -> FlagResponse.fromEntity(flagRepository.findByIdWithRules(id)
+                .orElseThrow(() -> new FlagNotFoundException(id))));
     }
 
-    @Transactional(readOnly = true)
-    public FlagResponse getFlagByName(String name) {
-        FeatureFlag flag = flagRepository.findByNameWithRules(name)
-                .orElseThrow(() -> new FlagNotFoundException(name));
-        return FlagResponse.fromEntity(flag);
+    @Transactional
+    public FlagResponse getFlagByName(String environmentKey, String name) {
+        UUID environmentId = environmentService.resolve(environmentKey).getId();
+        return readModel.get("flagByName", environmentId + ":" + name, () -> FlagResponse.fromEntity(
+                flagRepository.findByNameWithRules(environmentId, name)
+                        .orElseThrow(() -> new FlagNotFoundException(name))));
     }
 
     @Transactional(readOnly = true)
-    public List<FlagResponse> getAllFlags() {
-        return flagRepository.findAllByOrderByCreatedAtDesc().stream()
+    public List<FlagResponse> getAllFlags(String environmentKey) {
+        UUID environmentId = environmentService.resolve(environmentKey).getId();
+        return flagRepository.findAllByEnvironmentIdOrderByCreatedAtDesc(environmentId).stream()
                 .map(FlagResponse::fromEntityWithoutRules)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public FlagPageResponse getFlagPage(FlagPageRequest request) {
+        int limit = request.getLimit() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(request.getLimit(), MAX_PAGE_SIZE);
+
+        Instant afterCreatedAt = null;
+        UUID afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] cursor = decodeCursor(request.getCursor());
+            afterCreatedAt = Instant.parse(cursor[0]);
+            afterId = UUID.fromString(cursor[1]);
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        UUID environmentId = environmentService.resolve(request.getEnvironment()).getId();
+        List<FlagSummary> rows = flagQueryRepository.findPage(environmentId, request, afterCreatedAt, afterId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<FlagSummary> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            FlagSummary last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return FlagPageResponse.builder()
+                .items(List.copyOf(items))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static String encodeCursor(Instant createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant.parse(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     @Transactional
     public FlagResponse updateFlag(UUID id, UpdateFlagRequest request) {
         FeatureFlag flag = flagRepository.findById(id)
@@ -84,7 +175,7 @@ public class FlagService {
         }
 
         flag = flagRepository.save(flag);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(flag.getEnvironmentId());
 
         log.info("Updated flag: {}", flag.getName());
         return FlagResponse.fromEntity(flag);
@@ -97,7 +188,7 @@ public class FlagService {
 
         flag.setEnabled(enabled);
         flagRepository.save(flag);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(flag.getEnvironmentId());
 
         log.info("Toggled flag {} to {}", flag.getName(), enabled);
     }
@@ -107,12 +198,175 @@ public class FlagService {
         FeatureFlag flag = flagRepository.findById(id)
                 .orElseThrow(() -> new FlagNotFoundException(id));
 
+        prerequisiteRepository.lockGraph();
+        List<String> dependents = prerequisiteRepository.findDependentNames(id);
+        if (!dependents.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Flag %s is a prerequisite of: %s", flag.getName(), String.join(", ", dependents)));
+        }
+
         flagRepository.delete(flag);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(flag.getEnvironmentId());
 
         log.info("Deleted flag: {}", flag.getName());
     }
 
+    // Bulk operations: one statement per step, one transaction, one cache invalidation
+
+    @Transactional
+    public BulkFlagResponse bulkToggle(String environmentKey, BulkFlagRequest request) {
+        if (request.getEnabled() == null) {
+            throw new IllegalArgumentException("enabled is required");
+        }
+        return bulkUpdate(selection(environmentKey, request), request.getEnabled(), null);
+    }
+
+    @Transactional
+    public BulkFlagResponse bulkUpdate(String environmentKey, BulkFlagRequest request) {
+        if (request.getEnabled() == null && request.getRolloutPercentage() == null) {
+            throw new IllegalArgumentException("Nothing to update: set enabled and/or rolloutPercentage");
+        }
+        return bulkUpdate(selection(environmentKey, request), request.getEnabled(), request.getRolloutPercentage());
+    }
+
+    private BulkFlagResponse bulkUpdate(Selection selection, Boolean enabled, Integer rolloutPercentage) {
+        List<String> changed = bulkRepository.update(selection, enabled, rolloutPercentage);
+        if (!changed.isEmpty()) {
+            cacheService.invalidateCache(selection.environmentId());
+        }
+        log.info("Bulk updated {} flags (enabled={}, rollout={}): {}",
+                changed.size(), enabled, rolloutPercentage, changed);
+        return BulkFlagResponse.builder().affected(changed.size()).flagNames(changed).build();
+    }
+
+    @Transactional
+    public BulkFlagResponse bulkDelete(String environmentKey, BulkFlagRequest request) {
+        Selection selection = selection(environmentKey, request);
+
+        prerequisiteRepository.lockGraph();
+        List<String> blocking = bulkRepository.findOutsideDependents(selection);
+        if (!blocking.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "Flags outside the selection depend on selected flags: " + String.join(", ", blocking));
+        }
+
+        List<String> deleted = bulkRepository.delete(selection);
+        if (!deleted.isEmpty()) {
+            cacheService.invalidateCache(selection.environmentId());
+        }
+        log.info("Bulk deleted {} flags: {}", deleted.size(), deleted);
+        return BulkFlagResponse.builder().affected(deleted.size()).flagNames(deleted).build();
+    }
+
+    // Only flags in the environment are selected, IDs from any other are ignored
+    private Selection selection(String environmentKey, BulkFlagRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean byPrefix = request.getNamePrefix() != null && !request.getNamePrefix().isBlank();
+        if (byIds == byPrefix) {
+            throw new IllegalArgumentException("Select flags with either ids or namePrefix");
+        }
+        UUID environmentId = environmentService.resolve(environmentKey).getId();
+        return byIds
+                ? new Selection(environmentId, Set.copyOf(request.getIds()), null)
+                : new Selection(environmentId, null, request.getNamePrefix().trim());
+    }
+
+    /**
+     * Replaces the flag's variants. Users the flag is on for are split across
+     * them by weight; an empty list makes it a plain boolean flag again.
+     */
+    @Transactional
+    public FlagResponse setVariants(UUID flagId, SetVariantsRequest request) {
+        FeatureFlag flag = flagRepository.findById(flagId)
+                .orElseThrow(() -> new FlagNotFoundException(flagId));
+
+        Set<String> keys = new HashSet<>();
+        long totalWeight = 0;
+        for (VariantRequest variant : request.getVariants()) {
+            if (!keys.add(variant.getKey())) {
+                throw new IllegalArgumentException("Duplicate variant key: " + variant.getKey());
+            }
+            totalWeight += variant.getWeight();
+        }
+        if (!request.getVariants().isEmpty() && totalWeight == 0) {
+            throw new IllegalArgumentException("At least one variant must have a positive weight");
+        }
+
+        flag.setVariants(request.getVariants().isEmpty() ? null : request.getVariants().stream()
+                .map(variant -> FlagVariant.builder()
+                        .key(variant.getKey())
+                        .value(variant.getValue())
+                        .weight(variant.getWeight())
+                        .build())
+                .collect(Collectors.toList()));
+        flag = flagRepository.save(flag);
+        cacheService.invalidateCache(flag.getEnvironmentId());
+
+        log.info("Set {} variants on flag {}", request.getVariants().size(), flag.getName());
+        return FlagResponse.fromEntity(flag);
+    }
+
+    // Prerequisite management
+    @Transactional
+    public FlagResponse addPrerequisite(UUID flagId, UUID prerequisiteId) {
+        if (flagId.equals(prerequisiteId)) {
+            throw new IllegalArgumentException("A flag cannot be its own prerequisite");
+        }
+        FeatureFlag flag = flagRepository.findById(flagId)
+                .orElseThrow(() -> new FlagNotFoundException(flagId));
+        FeatureFlag prerequisite = flagRepository.findById(prerequisiteId)
+                .orElseThrow(() -> new FlagNotFoundException(prerequisiteId));
+        if (!prerequisite.getEnvironmentId().equals(flag.getEnvironmentId())) {
+            throw new IllegalArgumentException(String.format(
+                    "Prerequisite %s is in a different environment than %s", prerequisite.getName(), flag.getName()));
+        }
+
+        prerequisiteRepository.lockGraph();
+        if (flag.getPrerequisiteIds().contains(prerequisiteId)) {
+            return FlagResponse.fromEntity(flag);
+        }
+        if (dependsOn(prerequisiteId, flagId, prerequisiteRepository.findAllEdges())) {
+            throw new IllegalArgumentException(String.format(
+                    "Adding %s as a prerequisite of %s would create a cycle", prerequisite.getName(), flag.getName()));
+        }
+
+        flag.getPrerequisiteIds().add(prerequisiteId);
+        flag = flagRepository.save(flag);
+        cacheService.invalidateCache(flag.getEnvironmentId());
+
+        log.info("Added prerequisite {} to flag {}", prerequisite.getName(), flag.getName());
+        return FlagResponse.fromEntity(flag);
+    }
+
+    @Transactional
+    public FlagResponse removePrerequisite(UUID flagId, UUID prerequisiteId) {
+        FeatureFlag flag = flagRepository.findById(flagId)
+                .orElseThrow(() -> new FlagNotFoundException(flagId));
+
+        if (flag.getPrerequisiteIds().remove(prerequisiteId)) {
+            flag = flagRepository.save(flag);
+            cacheService.invalidateCache(flag.getEnvironmentId());
+            log.info("Removed prerequisite {} from flag {}", prerequisiteId, flag.getName());
+        }
+        return FlagResponse.fromEntity(flag);
+    }
+
+    // True if target is reachable from start by following prerequisite edges
+    private static boolean dependsOn(UUID start, UUID target, Map<UUID, List<UUID>> edges) {
+        Set<UUID> seen = new HashSet<>();
+        Deque<UUID> pending = new ArrayDeque<>(List.of(start));
+        while (!pending.isEmpty()) {
+            UUID current = pending.pop();
+            if (current.equals(target)) {
+                return true;
+            }
+            if (seen.add(current)) {
+                pending.addAll(edges.getOrDefault(current, List.of()));
+            }
+        }
+        return false;
+    }
+
     // Rule management
     @Transactional
     public RuleResponse addRule(UUID flagId, CreateRuleRequest request) {
@@ -124,6 +378,10 @@ public class FlagService {
             throw new DuplicateRuleException("Rule already exists for this flag");
         }
 
+        // Reject malformed values (bad regex, version, range, unknown segment) up front
+        RuleCompiler.compile(request.getRuleType(), request.getRuleValue(),
+                name -> segmentRepository.existsByName(name) ? SegmentMembership.EMPTY : null);
+
         FlagRule rule = FlagRule.builder()
                 .flag(flag)
                 .ruleType(request.getRuleType())
@@ -133,22 +391,44 @@ public class FlagService {
                 .build();
 
         rule = ruleRepository.save(rule);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(flag.getEnvironmentId());
 
         log.info("Added rule to flag {}: {} = {}", flag.getName(),
                 request.getRuleType(), request.getRuleValue());
         return RuleResponse.fromEntity(rule);
     }
 
-    @Transactional(readOnly = true)
-    public List<RuleResponse> getRules(UUID flagId) {
-        if (!flagRepository.existsById(flagId)) {
-            throw new FlagNotFoundException(flagId);
-        }
+    /**
+     * Upserts already-validated rules in batches and invalidates the cache once,
+     * however many rules are written.
+     */
+    @Transactional
+    public RuleImportResponse importRules(UUID flagId, Collection<CreateRuleRequest> rules, int rowsRead) {
+        FeatureFlag flag = flagRepository.findById(flagId)
+                .orElseThrow(() -> new FlagNotFoundException(flagId));
 
-        return ruleRepository.findByFlagIdOrderByPriorityDesc(flagId).stream()
-                .map(RuleResponse::fromEntity)
-                .collect(Collectors.toList());
+        ruleBatchRepository.upsertRules(flagId, rules);
+        cacheService.invalidateCache(flag.getEnvironmentId());
+
+        log.info("Imported {} rules into flag {}", rules.size(), flag.getName());
+        return RuleImportResponse.builder()
+                .flagId(flagId)
+                .rowsRead(rowsRead)
+                .rulesUpserted(rules.size())
+                .duplicateRows(rowsRead - rules.size())
+                .build();
+    }
+
+    @Transactional
+    public List<RuleResponse> getRules(UUID flagId) {
+        return readModel.get("rules", flagId, () -> {
+            if (!flagRepository.existsById(flagId)) {
+                throw new FlagNotFoundException(flagId);
+            }
+            return ruleRepository.findByFlagIdOrderByPriorityDesc(flagId).stream()
+                    .map(RuleResponse::fromEntity)
+                    .toList();
+        });
     }
 
     @Transactional
@@ -158,7 +438,7 @@ public class FlagService {
 
         rule.setEnabled(enabled);
         ruleRepository.save(rule);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(rule.getFlag().getEnvironmentId());
 
         log.info("Toggled rule {} to {}", ruleId, enabled);
     }
@@ -168,8 +448,9 @@ public class FlagService {
         FlagRule rule = ruleRepository.findById(ruleId)
                 .orElseThrow(() -> new RuntimeException("Rule not found: " + ruleId));
 
+        UUID environmentId = rule.getFlag().getEnvironmentId();
         ruleRepository.delete(rule);
-        cacheService.invalidateCache();
+        cacheService.invalidateCache(environmentId);
 
         log.info("Deleted rule: {}", ruleId);
     }
@@ -0,0 +1,258 @@
+package com.featureflag.service;
+
+import com.featureflag.dto.HeavyHittersResponse;
+import com.featureflag.dto.HeavyHittersResponse.HeavyHitter;
+import com.featureflag.entity.FeatureFlag;
+import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.service.SpaceSavingSketch.Entry;
+import com.featureflag.service.SpaceSavingSketch.Summary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hottest flags, users and flag/user pairs on this node over sliding
+ * windows, without touching the evaluations table. Counts are kept in
+ * fixed-size Space-Saving sketches per time slice: the current slice is
+ * striped so concurrent evaluations rarely share a lock, and when a slice
+ * closes its stripes are merged into one summary. A window query merges the
+ * summaries of the slices it spans.
+ */
+@Service
+@RequiredArgsConstructor
+public class HeavyHitterTracker {
+
+    private final FeatureFlagRepository flagRepository;
+
+    @Value("${featureflag.hotspots.enabled:true}")
+    private boolean enabled;
+
+    // Counters per sketch; any key with more than 1/capacity of a slice's traffic is always caught
+    @Value("${featureflag.hotspots.capacity:256}")
+    private int capacity;
+
+    @Value("${featureflag.hotspots.stripes:8}")
+    private int stripes;
+
+    @Value("${featureflag.hotspots.slice-seconds:60}")
+    private int sliceSeconds;
+
+    // Closed slices kept, bounding the longest window
+    @Value("${featureflag.hotspots.retained-slices:60}")
+    private int retainedSlices;
+
+    private volatile Slice current;
+    // Newest first; guarded by itself
+    private final Deque<ClosedSlice> closed = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        current = new Slice(System.currentTimeMillis(), stripes, capacity);
+    }
+
+    /** Records one evaluation of a flag. */
+    public void record(UUID flagId, String userId) {
+        if (!enabled) {
+            return;
+        }
+        Slice slice = current;
+        Stripe stripe = slice.stripe();
+        synchronized (stripe) {
+            stripe.flags.add(flagId, 1);
+            if (userId != null) {
+                stripe.users.add(userId, 1);
+                stripe.flagUsers.add(new FlagUser(flagId, userId), 1);
+            }
+        }
+        slice.evaluations.increment();
+    }
+
+    /** Records an all-flags evaluation, taking the stripe lock once for the whole request. */
+    public void record(List<UUID> flagIds, String userId) {
+        if (!enabled || flagIds.isEmpty()) {
+            return;
+        }
+        Slice slice = current;
+        Stripe stripe = slice.stripe();
+        synchronized (stripe) {
+            for (UUID flagId : flagIds) {
+                stripe.flags.add(flagId, 1);
+                if (userId != null) {
+                    stripe.flagUsers.add(new FlagUser(flagId, userId), 1);
+                }
+            }
+            if (userId != null) {
+                stripe.users.add(userId, flagIds.size());
+            }
+        }
+        slice.evaluations.add(flagIds.size());
+    }
+
+    @Scheduled(fixedRateString = "${featureflag.hotspots.slice-seconds:60}",
+            initialDelayString = "${featureflag.hotspots.slice-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+        Slice previous = current;
+        current = new Slice(System.currentTimeMillis(), stripes, capacity);
+        // A recorder that read the old slice just before the swap may still be
+        // adding to it; those few evaluations are simply not counted
+        ClosedSlice summary = previous.close(capacity);
+        synchronized (closed) {
+            closed.addFirst(summary);
+            while (closed.size() > retainedSlices) {
+                closed.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Top {@code limit} flags, users and flag/user pairs over roughly the last
+     * {@code windowMinutes}: the current slice plus as many closed slices as
+     * the window covers.
+     */
+    public HeavyHittersResponse getHeavyHitters(int windowMinutes, int limit) {
+        if (!enabled) {
+            throw new IllegalArgumentException("Heavy hitter tracking is disabled");
+        }
+        int maxWindowMinutes = (retainedSlices + 1) * sliceSeconds / 60;
+        if (windowMinutes < 1 || windowMinutes > maxWindowMinutes) {
+            throw new IllegalArgumentException("windowMinutes must be between 1 and " + maxWindowMinutes);
+        }
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("limit must be between 1 and " + capacity);
+        }
+
+        int sliceCount = (int) Math.ceil(windowMinutes * 60.0 / sliceSeconds);
+        Slice live = current;
+        List<ClosedSlice> slices = new ArrayList<>(sliceCount);
+        slices.add(live.close(capacity));
+        synchronized (closed) {
+            for (ClosedSlice slice : closed) {
+                if (slices.size() >= sliceCount) {
+                    break;
+                }
+                slices.add(slice);
+            }
+        }
+
+        long total = slices.stream().mapToLong(ClosedSlice::evaluations).sum();
+        List<Entry<UUID>> flags = top(slices.stream().map(ClosedSlice::flags).toList(), limit);
+        List<Entry<String>> users = top(slices.stream().map(ClosedSlice::users).toList(), limit);
+        List<Entry<FlagUser>> flagUsers = top(slices.stream().map(ClosedSlice::flagUsers).toList(), limit);
+
+        // Flag names come from the database: disabled flags are not in the snapshot
+        Set<UUID> flagIds = new HashSet<>();
+        flags.forEach(entry -> flagIds.add(entry.key()));
+        flagUsers.forEach(entry -> flagIds.add(entry.key().flagId()));
+        Map<UUID, String> names = flagRepository.findAllById(flagIds).stream()
+                .collect(Collectors.toMap(FeatureFlag::getId, FeatureFlag::getName));
+
+        return HeavyHittersResponse.builder()
+                .windowMinutes(windowMinutes)
+                .since(Instant.ofEpochMilli(slices.get(slices.size() - 1).startMillis()))
+                .totalEvaluations(total)
+                .flags(toHitters(flags, total, flagId -> HeavyHitter.builder()
+                        .flagId(flagId)
+                        .flagName(names.get(flagId))))
+                .users(toHitters(users, total, userId -> HeavyHitter.builder()
+                        .userId(userId)))
+                .flagUsers(toHitters(flagUsers, total, pair -> HeavyHitter.builder()
+                        .flagId(pair.flagId())
+                        .flagName(names.get(pair.flagId()))
+                        .userId(pair.userId())))
+                .build();
+    }
+
+    // Merged at full capacity so no key is lost early, then ranked by the count each key is
+    // guaranteed to have: keys that only inherited counts from evicted ones rank last
+    private <K> List<Entry<K>> top(List<Summary<K>> summaries, int limit) {
+        return Summary.merge(summaries, capacity).entries().stream()
+                .sorted(Entry.MOST_GUARANTEED_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    private static <K> List<HeavyHitter> toHitters(List<Entry<K>> entries, long total,
+                                                  Function<K, HeavyHitter.HeavyHitterBuilder> identify) {
+        List<HeavyHitter> hitters = new ArrayList<>(entries.size());
+        for (Entry<K> entry : entries) {
+            hitters.add(identify.apply(entry.key())
+                    .count(entry.count())
+                    .maxError(entry.error())
+                    .share(total > 0 ? Math.min(1.0, (double) entry.count() / total) : 0)
+                    .build());
+        }
+        return hitters;
+    }
+
+    private record FlagUser(UUID flagId, String userId) {}
+
+    private record ClosedSlice(long startMillis, long evaluations, Summary<UUID> flags,
+                               Summary<String> users, Summary<FlagUser> flagUsers) {}
+
+    private static final class Stripe {
+        final SpaceSavingSketch<UUID> flags;
+        final SpaceSavingSketch<String> users;
+        final SpaceSavingSketch<FlagUser> flagUsers;
+
+        Stripe(int capacity) {
+            flags = new SpaceSavingSketch<>(capacity);
+            users = new SpaceSavingSketch<>(capacity);
+            flagUsers = new SpaceSavingSketch<>(capacity);
+        }
+    }
+
+    private static final class Slice {
+        final long startMillis;
+        final Stripe[] stripes;
+        final LongAdder evaluations = new LongAdder();
+
+        Slice(long startMillis, int stripeCount, int capacity) {
+            this.startMillis = startMillis;
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe(capacity);
+            }
+        }
+
+        // Request threads are pooled, so a thread keeps landing on the same stripe
+        Stripe stripe() {
+            return stripes[(int) (Thread.currentThread().threadId() % stripes.length)];
+        }
+
+        ClosedSlice close(int capacity) {
+            List<Summary<UUID>> flags = new ArrayList<>(stripes.length);
+            List<Summary<String>> users = new ArrayList<>(stripes.length);
+            List<Summary<FlagUser>> flagUsers = new ArrayList<>(stripes.length);
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    flags.add(stripe.flags.summarize());
+                    users.add(stripe.users.summarize());
+                    flagUsers.add(stripe.flagUsers.summarize());
+                }
+            }
+            return new ClosedSlice(startMillis, evaluations.sum(),
+                    Summary.merge(flags, capacity),
+                    Summary.merge(users, capacity),
+                    Summary.merge(flagUsers, capacity));
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.featureflag.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflag.dto.LiveAnalyticsEvent;
+import com.featureflag.dto.LiveAnalyticsEvent.FlagCount;
+import com.featureflag.exception.DependencyUnavailableException;
+import com.featureflag.exception.FlagNotFoundException;
+import com.featureflag.exception.TooManyRequestsException;
+import com.featureflag.repository.FeatureFlagRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-second evaluation counts for live dashboards, streamed over SSE
+ * without touching the database. Each node counts evaluations in memory and
+ * once a second publishes what it counted to a Redis topic; every node sums
+ * the cluster's messages per second and, a short delay later so the slowest
+ * node has reported, pushes one event per watched flag and one for the
+ * all-flags stream. Each event is serialized once and the same bytes are sent
+ * to every watcher, so a hundred open dashboards cost a hundred socket
+ * writes, not a hundred queries. Writes run off the tick thread, at most one
+ * per stream at a time; a client still reading the previous event misses the
+ * next one rather than holding up publishing and every other stream.
+ *
+ * <p>If Redis is unavailable a node streams its own counts only.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveAnalyticsService {
+
+    private static final String TOPIC = "featureflags:analytics:live";
+    // Streams free up as dashboards close or time out; a rejected client should not hammer the node
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final FeatureFlagRepository flagRepository;
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.analytics.live.enabled:true}")
+    private boolean enabled;
+
+    // Seconds to wait for other nodes' counts before a second is pushed to watchers
+    @Value("${featureflag.analytics.live.delay-seconds:1}")
+    private int delaySeconds;
+
+    @Value("${featureflag.analytics.live.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    // Streams are closed after this long; EventSource clients reconnect on their own
+    @Value("${featureflag.analytics.live.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    // Running totals per flag on this node, never reset: each tick publishes the difference
+    // from the last, so an increment racing a tick is counted in the next second, never lost
+    private final Map<UUID, NodeCounts> counts = new ConcurrentHashMap<>();
+    // Cluster-wide counts per epoch second, summed from topic messages until pushed
+    private final ConcurrentSkipListMap<Long, Map<UUID, long[]>> pending = new ConcurrentSkipListMap<>();
+    private volatile long pushedThrough;
+
+    private final Map<UUID, Set<SseEmitter>> flagWatchers = new ConcurrentHashMap<>();
+    private final Set<SseEmitter> allWatchers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Streams with a write in flight
+    private final Set<SseEmitter> writing = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "live-analytics");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A write to a client that stopped reading blocks until its stream times out
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private RTopic topic;
+    private Integer listenerId;
+    private Counter lateCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        lateCounter = meterRegistry.counter("featureflag.analytics.live.late");
+        droppedCounter = meterRegistry.counter("featureflag.analytics.live.dropped");
+        Gauge.builder("featureflag.analytics.live.subscribers", subscribers, AtomicInteger::get)
+                .description("Open live analytics streams on this node")
+                .register(meterRegistry);
+
+        try {
+            topic = redissonClient.getTopic(TOPIC, ByteArrayCodec.INSTANCE);
+            listenerId = topic.addListener(byte[].class, (channel, message) -> merge(message));
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to live analytics, streaming this node's counts only: {}", e.getMessage());
+            topic = null;
+        }
+        pushedThrough = System.currentTimeMillis() / 1000 - 1;
+        // Ticks land just after each second boundary, so a tick publishes the second that just ended
+        executor.scheduleAtFixedRate(this::tick, 1000 - System.currentTimeMillis() % 1000 + 20, 1000,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        executor.shutdownNow();
+        sendExecutor.shutdownNow();
+        if (listenerId != null) {
+            topic.removeListener(listenerId);
+        }
+        allWatchers.forEach(SseEmitter::complete);
+        flagWatchers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /** Counts one evaluation; a map lookup and an uncontended add on the hot path. */
+    public void record(UUID flagId, boolean result) {
+        if (!enabled) {
+            return;
+        }
+        NodeCounts nodeCounts = counts.computeIfAbsent(flagId, id -> new NodeCounts());
+        (result ? nodeCounts.enabled : nodeCounts.disabled).increment();
+    }
+
+    /** Opens a stream of per-second counts for one flag. */
+    public SseEmitter subscribe(UUID flagId) {
+        if (!flagRepository.existsById(flagId)) {
+            throw new FlagNotFoundException(flagId);
+        }
+        SseEmitter emitter = newEmitter();
+        // Added and removed under the map's per-key lock, so an emptied set is never reused
+        flagWatchers.compute(flagId, (id, watchers) -> {
+            Set<SseEmitter> updated = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            updated.add(emitter);
+            return updated;
+        });
+        onClose(emitter, () -> flagWatchers.computeIfPresent(flagId, (id, watchers) -> {
+            watchers.remove(emitter);
+            return watchers.isEmpty() ? null : watchers;
+        }));
+        return emitter;
+    }
+
+    /** Opens a stream of per-second counts across all flags. */
+    public SseEmitter subscribeAll() {
+        SseEmitter emitter = newEmitter();
+        allWatchers.add(emitter);
+        onClose(emitter, () -> allWatchers.remove(emitter));
+        return emitter;
+    }
+
+    private SseEmitter newEmitter() {
+        if (!enabled) {
+            throw new DependencyUnavailableException("Live analytics is disabled");
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new TooManyRequestsException("Too many live analytics streams, retry later", RETRY_AFTER_SECONDS);
+        }
+        return new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+    }
+
+    // Completion follows timeouts and send errors too, so the stream is released exactly once
+    private void onClose(SseEmitter emitter, Runnable remove) {
+        emitter.onCompletion(() -> {
+            remove.run();
+            subscribers.decrementAndGet();
+        });
+        emitter.onTimeout(emitter::complete);
+    }
+
+    private void tick() {
+        try {
+            long second = System.currentTimeMillis() / 1000 - 1;
+            publish(second);
+            push(second - delaySeconds);
+        } catch (Exception e) {
+            log.warn("Live analytics tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(long second) {
+        ByteBuffer buffer = null;
+        int flags = 0;
+        for (Map.Entry<UUID, NodeCounts> entry : counts.entrySet()) {
+            NodeCounts nodeCounts = entry.getValue();
+            long enabledTotal = nodeCounts.enabled.sum();
+            long disabledTotal = nodeCounts.disabled.sum();
+            long enabledDelta = enabledTotal - nodeCounts.publishedEnabled;
+            long disabledDelta = disabledTotal - nodeCounts.publishedDisabled;
+            if (enabledDelta == 0 && disabledDelta == 0) {
+                continue;
+            }
+            nodeCounts.publishedEnabled = enabledTotal;
+            nodeCounts.publishedDisabled = disabledTotal;
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate(12 + counts.size() * 32);
+                buffer.putLong(second).putInt(0);
+            }
+            if (buffer.remaining() < 32) {
+                // Flags first evaluated since the buffer was sized
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+            buffer.putLong(entry.getKey().getMostSignificantBits())
+                    .putLong(entry.getKey().getLeastSignificantBits())
+                    .putLong(enabledDelta)
+                    .putLong(disabledDelta);
+            flags++;
+        }
+        if (buffer == null) {
+            return;
+        }
+        buffer.putInt(8, flags);
+        byte[] message = new byte[buffer.position()];
+        buffer.flip().get(message);
+
+        if (topic != null) {
+            try {
+                topic.publish(message);
+                return;
+            } catch (RuntimeException e) {
+                log.debug("Could not publish live analytics, counting locally: {}", e.getMessage());
+            }
+        }
+        merge(message);
+    }
+
+    // Message layout: epoch second, flag count, then per flag its ID and enabled/disabled counts
+    private void merge(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        long second = buffer.getLong();
+        if (second <= pushedThrough) {
+            lateCounter.increment();
+            return;
+        }
+        Map<UUID, long[]> totals = pending.computeIfAbsent(second, s -> new ConcurrentHashMap<>());
+        int flags = buffer.getInt();
+        for (int i = 0; i < flags; i++) {
+            UUID flagId = new UUID(buffer.getLong(), buffer.getLong());
+            long enabledCount = buffer.getLong();
+            long disabledCount = buffer.getLong();
+            totals.merge(flagId, new long[]{enabledCount, disabledCount},
+                    (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+        }
+    }
+
+    private void push(long through) {
+        while (pushedThrough < through) {
+            long second = pushedThrough + 1;
+            // Marked pushed first, so messages for this second arriving from now on count as late
+            pushedThrough = second;
+            Map<UUID, long[]> totals = pending.remove(second);
+            pushSecond(second, totals != null ? totals : Map.of());
+        }
+        // Messages racing the removal above can leave an entry behind
+        pending.headMap(through, true).clear();
+    }
+
+    private void pushSecond(long second, Map<UUID, long[]> totals) {
+        Instant timestamp = Instant.ofEpochSecond(second);
+        long enabledCount = 0;
+        long disabledCount = 0;
+        List<FlagCount> flags = new ArrayList<>(totals.size());
+        for (Map.Entry<UUID, long[]> entry : totals.entrySet()) {
+            long[] flagTotals = entry.getValue();
+            enabledCount += flagTotals[0];
+            disabledCount += flagTotals[1];
+            flags.add(new FlagCount(entry.getKey(), flagTotals[0], flagTotals[1]));
+        }
+
+        if (!allWatchers.isEmpty()) {
+            send(allWatchers, LiveAnalyticsEvent.builder()
+                    .timestamp(timestamp)
+                    .enabledCount(enabledCount)
+                    .disabledCount(disabledCount)
+                    .totalCount(enabledCount + disabledCount)
+                    .flags(flags)
+                    .build());
+        }
+        // Watched flags get an event every second, zeros included, so charts advance steadily
+        flagWatchers.forEach((flagId, watchers) -> {
+            long[] flagTotals = totals.getOrDefault(flagId, new long[2]);
+            send(watchers, LiveAnalyticsEvent.builder()
+                    .timestamp(timestamp)
+                    .flagId(flagId)
+                    .enabledCount(flagTotals[0])
+                    .disabledCount(flagTotals[1])
+                    .totalCount(flagTotals[0] + flagTotals[1])
+                    .build());
+        });
+    }
+
+    private void send(Set<SseEmitter> watchers, LiveAnalyticsEvent event) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> data;
+        try {
+            data = SseEmitter.event()
+                    .name("evaluations")
+                    .id(Long.toString(event.getTimestamp().getEpochSecond()))
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize live analytics event: {}", e.getMessage());
+            return;
+        }
+        for (SseEmitter emitter : watchers) {
+            if (!writing.add(emitter)) {
+                // Still writing an earlier event: the client is not keeping up
+                droppedCounter.increment();
+                continue;
+            }
+            sendExecutor.execute(() -> {
+                try {
+                    emitter.send(data);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the stream already ended; completing triggers removal
+                    emitter.complete();
+                } finally {
+                    writing.remove(emitter);
+                }
+            });
+        }
+    }
+
+    private static final class NodeCounts {
+        final LongAdder enabled = new LongAdder();
+        final LongAdder disabled = new LongAdder();
+        // Only touched by the tick thread
+        long publishedEnabled;
+        long publishedDisabled;
+    }
+}
@@ -0,0 +1,190 @@
+package com.featureflag.service;
+
+import com.featureflag.entity.ScheduledRollout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires scheduled rollout changes. One node at a time holds the leader lock;
+ * it keeps the changes due within the lookahead window in an in-process delay
+ * queue and applies each one at its due time, then publishes it to the other
+ * nodes as a snapshot patch. Followers only retry the lock, so the database
+ * sees one small poll per interval rather than one per node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RolloutScheduler {
+
+    public static final String CHANGES_TOPIC = "featureflags:rollouts:changed";
+    private static final String LEADER_LOCK_KEY = "featureflags:rollouts:leader";
+
+    private final ScheduledRolloutService rolloutService;
+    private final FlagCacheService cacheService;
+    private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${featureflag.rollouts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${featureflag.rollouts.poll-interval-ms:15000}")
+    private long pollIntervalMs;
+
+    @Value("${featureflag.rollouts.lookahead-ms:60000}")
+    private long lookaheadMs;
+
+    // Everything below runs on this one thread: Redisson locks are owned by
+    // the thread that took them, and the queue needs no further locking
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rollout-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<UUID, ScheduledFuture<?>> queued = new ConcurrentHashMap<>();
+    private RLock leaderLock;
+    private volatile boolean leader;
+    private Integer listenerId;
+    private Counter appliedCounter;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Rollout scheduler disabled");
+            return;
+        }
+        leaderLock = redissonClient.getLock(LEADER_LOCK_KEY);
+        appliedCounter = meterRegistry.counter("featureflag.rollouts.applied");
+        Gauge.builder("featureflag.rollouts.queued", queued, Map::size)
+                .description("Scheduled rollout changes waiting in this node's delay queue")
+                .register(meterRegistry);
+
+        try {
+            listenerId = redissonClient.getTopic(CHANGES_TOPIC)
+                    .addListener(String.class, (channel, message) -> executor.execute(this::poll));
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to rollout schedule changes, relying on polling: {}", e.getMessage());
+        }
+        executor.scheduleWithFixedDelay(this::tick, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        if (listenerId != null) {
+            redissonClient.getTopic(CHANGES_TOPIC).removeListener(listenerId);
+        }
+        try {
+            // Release on the owning thread so another node can take over at once
+            executor.submit(() -> {
+                if (leader && leaderLock.isHeldByCurrentThread()) {
+                    leaderLock.unlock();
+                }
+            }).get(2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Could not release rollout scheduler lock, it will expire: {}", e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    private void tick() {
+        try {
+            if (!leaderLock.isHeldByCurrentThread()) {
+                if (leader) {
+                    stepDown();
+                }
+                // No lease time, so the watchdog renews the lock while this node lives
+                if (!leaderLock.tryLock()) {
+                    return;
+                }
+                leader = true;
+                log.info("Acquired rollout scheduler leadership");
+            }
+            poll();
+        } catch (Exception e) {
+            log.warn("Rollout scheduler tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void poll() {
+        if (!leader) {
+            return;
+        }
+        try {
+            Instant horizon = Instant.now().plusMillis(lookaheadMs);
+            for (ScheduledRollout rollout : rolloutService.findDue(horizon)) {
+                queued.computeIfAbsent(rollout.getId(), id -> {
+                    long delayMs = Math.max(0, Duration.between(Instant.now(), rollout.getApplyAt()).toMillis());
+                    return executor.schedule(() -> fire(rollout), delayMs, TimeUnit.MILLISECONDS);
+                });
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load due rollout changes: {}", e.getMessage());
+        }
+    }
+
+    private void fire(ScheduledRollout rollout) {
+        queued.remove(rollout.getId());
+        UUID environmentId;
+        try {
+            if (!leader || !leaderLock.isHeldByCurrentThread()) {
+                stepDown();
+                return;
+            }
+            Optional<UUID> applied = rolloutService.apply(rollout);
+            if (applied.isEmpty()) {
+                return;
+            }
+            environmentId = applied.get();
+        } catch (Exception e) {
+            // Still PENDING, so the next poll queues it again
+            log.error("Failed to apply scheduled rollout {}: {}", rollout.getId(), e.getMessage());
+            return;
+        }
+
+        appliedCounter.increment();
+        log.info("Applied scheduled rollout {}: flag {} -> {}%",
+                rollout.getId(), rollout.getFlagId(), rollout.getRolloutPercentage());
+        try {
+            cacheService.publishRolloutPatch(environmentId, rollout.getFlagId(), rollout.getRolloutPercentage());
+        } catch (RuntimeException e) {
+            log.warn("Could not publish rollout patch, falling back to invalidation: {}", e.getMessage());
+            cacheService.invalidateCache(environmentId);
+        }
+    }
+
+    private void stepDown() {
+        if (leader) {
+            log.warn("Lost rollout scheduler leadership, dropping {} queued changes", queued.size());
+        }
+        leader = false;
+        queued.values().forEach(future -> future.cancel(false));
+        queued.clear();
+    }
+}
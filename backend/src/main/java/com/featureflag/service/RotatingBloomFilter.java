@@ -0,0 +1,106 @@
+package com.featureflag.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over a sliding time window, in fixed memory: two generations
+ * of {@code bits} bits each. Keys are added to the current generation and
+ * looked up in both; every half window the older generation is dropped and
+ * a fresh one started. A key is therefore remembered for at least half the
+ * window and never longer than the full window.
+ *
+ * <p>Lock-free apart from rotation. Concurrent adds of the same key may both
+ * report it as new; false positives occur at the usual Bloom filter rate for
+ * the number of distinct keys per generation.
+ */
+class RotatingBloomFilter {
+
+    private final int hashFunctions;
+    private final int mask;
+    private final long rotateNanos;
+
+    private volatile Generations generations;
+
+    RotatingBloomFilter(int bits, int hashFunctions, long windowNanos) {
+        int size = Integer.highestOneBit(Math.max(64, bits));
+        this.hashFunctions = hashFunctions;
+        this.mask = size - 1;
+        this.rotateNanos = windowNanos / 2;
+        this.generations = new Generations(new Generation(size), new Generation(size), System.nanoTime());
+    }
+
+    /**
+     * Adds a key given as a well-mixed 64-bit hash. Returns true if the key
+     * was (probably) already present, in which case nothing is added, so a key
+     * seen continuously is still reported as new once per window.
+     */
+    boolean addIfAbsent(long hash) {
+        Generations current = rotateIfDue();
+        // Double hashing (Kirsch-Mitzenmacher): probe i is h1 + i * h2
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        if (current.active().containsAll(h1, h2) || current.previous().containsAll(h1, h2)) {
+            return true;
+        }
+        for (int i = 0; i < hashFunctions; i++) {
+            current.active().set((h1 + i * h2) & mask);
+        }
+        return false;
+    }
+
+    /** Share of bits set in the current generation; false positives grow with this. */
+    double fillRatio() {
+        return (double) generations.active().bitsSet.sum() / (mask + 1);
+    }
+
+    private Generations rotateIfDue() {
+        Generations current = generations;
+        long now = System.nanoTime();
+        if (now - current.startedNanos() < rotateNanos) {
+            return current;
+        }
+        synchronized (this) {
+            current = generations;
+            long elapsed = now - current.startedNanos();
+            if (elapsed >= rotateNanos) {
+                // After a quiet spell the current generation may be older than the window too
+                Generation previous = elapsed >= 2 * rotateNanos ? new Generation(mask + 1) : current.active();
+                current = new Generations(new Generation(mask + 1), previous, now);
+                generations = current;
+            }
+            return current;
+        }
+    }
+
+    private record Generations(Generation active, Generation previous, long startedNanos) {}
+
+    private final class Generation {
+        final AtomicLongArray words;
+        final LongAdder bitsSet = new LongAdder();
+
+        Generation(int bits) {
+            words = new AtomicLongArray(bits >>> 6);
+        }
+
+        boolean containsAll(int h1, int h2) {
+            for (int i = 0; i < hashFunctions; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void set(int bit) {
+            long flag = 1L << bit;
+            if ((words.get(bit >>> 6) & flag) != 0) {
+                return;
+            }
+            if ((words.getAndAccumulate(bit >>> 6, flag, (word, f) -> word | f) & flag) == 0) {
+                bitsSet.increment();
+            }
+        }
+    }
+}
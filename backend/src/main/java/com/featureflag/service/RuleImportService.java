@@ -0,0 +1,227 @@
+package com.featureflag.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.featureflag.dto.CreateRuleRequest;
+import com.featureflag.dto.RuleImportResponse;
+import com.featureflag.enums.RuleType;
+import com.featureflag.evaluation.RuleCompiler;
+import com.featureflag.evaluation.SegmentMembership;
+import com.featureflag.exception.FlagNotFoundException;
+import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.repository.SegmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams a JSON array or CSV of rules, validates every row in memory and
+ * hands the de-duplicated result to {@link FlagService#importRules} for a
+ * single batched write. Parsing happens outside the transaction so a slow
+ * upload never holds a database connection.
+ *
+ * <p>CSV columns are {@code ruleType,ruleValue[,enabled][,priority]} with an
+ * optional header row; values containing commas must be double-quoted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RuleImportService {
+
+    private static final int MAX_ROWS = 100_000;
+    private static final int MAX_RULE_VALUE_LENGTH = 255;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final FlagService flagService;
+    private final FeatureFlagRepository flagRepository;
+    private final SegmentRepository segmentRepository;
+    private final ObjectMapper objectMapper;
+
+    public RuleImportResponse importJson(UUID flagId, InputStream body) throws IOException {
+        ensureFlagExists(flagId);
+        ImportBatch batch = new ImportBatch();
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of rules");
+            }
+            int row = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row++;
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    batch.add(row, objectMapper.treeToValue(node, CreateRuleRequest.class));
+                } catch (IOException e) {
+                    batch.reject(row, "unreadable rule");
+                }
+            }
+        }
+
+        return batch.commit(flagId);
+    }
+
+    public RuleImportResponse importCsv(UUID flagId, InputStream body) throws IOException {
+        ensureFlagExists(flagId);
+        ImportBatch batch = new ImportBatch();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            int row = 0;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank()) continue;
+
+                List<String> columns = splitCsvLine(line);
+                if (row == 1 && columns.get(0).trim().equalsIgnoreCase("ruleType")) continue;
+
+                try {
+                    batch.add(row, parseCsvRule(columns));
+                } catch (IllegalArgumentException e) {
+                    batch.reject(row, e.getMessage());
+                }
+            }
+        }
+
+        return batch.commit(flagId);
+    }
+
+    private void ensureFlagExists(UUID flagId) {
+        if (!flagRepository.existsById(flagId)) {
+            throw new FlagNotFoundException(flagId);
+        }
+    }
+
+    private CreateRuleRequest parseCsvRule(List<String> columns) {
+        if (columns.size() < 2) {
+            throw new IllegalArgumentException("expected ruleType,ruleValue[,enabled][,priority]");
+        }
+
+        RuleType ruleType;
+        try {
+            ruleType = RuleType.valueOf(columns.get(0).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown rule type " + columns.get(0).trim());
+        }
+
+        boolean enabled = columns.size() < 3 || columns.get(2).isBlank()
+                || Boolean.parseBoolean(columns.get(2).trim());
+        int priority = 0;
+        if (columns.size() >= 4 && !columns.get(3).isBlank()) {
+            try {
+                priority = Integer.parseInt(columns.get(3).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("priority must be a number");
+            }
+        }
+
+        return CreateRuleRequest.builder()
+                .ruleType(ruleType)
+                .ruleValue(columns.get(1).trim())
+                .enabled(enabled)
+                .priority(priority)
+                .build();
+    }
+
+    // Minimal RFC 4180 split: double-quoted fields may contain commas and "" escapes
+    private static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    /**
+     * Accumulates validated rules keyed by (type, value) - the same key as the
+     * unique_rule_per_flag constraint - so later rows win, as they would in SQL.
+     */
+    private class ImportBatch {
+
+        private final Map<String, CreateRuleRequest> rules = new LinkedHashMap<>();
+        private final Map<String, Boolean> knownSegments = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private int errorCount;
+        private int rowsRead;
+
+        void add(int row, CreateRuleRequest rule) {
+            rowsRead++;
+            if (rowsRead > MAX_ROWS) {
+                throw new IllegalArgumentException("Import exceeds " + MAX_ROWS + " rows");
+            }
+            if (rule == null || rule.getRuleType() == null) {
+                reject(row, "rule type is required");
+                return;
+            }
+            if (rule.getRuleValue() == null || rule.getRuleValue().isBlank()) {
+                reject(row, "rule value is required");
+                return;
+            }
+            if (rule.getRuleValue().length() > MAX_RULE_VALUE_LENGTH) {
+                reject(row, "rule value exceeds " + MAX_RULE_VALUE_LENGTH + " characters");
+                return;
+            }
+            try {
+                RuleCompiler.compile(rule.getRuleType(), rule.getRuleValue(), name ->
+                        knownSegments.computeIfAbsent(name, segmentRepository::existsByName)
+                                ? SegmentMembership.EMPTY : null);
+            } catch (IllegalArgumentException e) {
+                reject(row, e.getMessage());
+                return;
+            }
+            rules.put(rule.getRuleType() + "\u0000" + rule.getRuleValue(), rule);
+        }
+
+        void reject(int row, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("row " + row + ": " + message);
+            }
+        }
+
+        RuleImportResponse commit(UUID flagId) {
+            if (errorCount > 0) {
+                throw new IllegalArgumentException(String.format("Import rejected, %d invalid row(s): %s",
+                        errorCount, String.join("; ", errors)));
+            }
+            if (rules.isEmpty()) {
+                throw new IllegalArgumentException("Import contains no rules");
+            }
+            return flagService.importRules(flagId, rules.values(), rowsRead);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.featureflag.service;
+
+import com.featureflag.dto.RolloutStepRequest;
+import com.featureflag.dto.ScheduleRolloutRequest;
+import com.featureflag.dto.ScheduledRolloutResponse;
+import com.featureflag.entity.ScheduledRollout;
+import com.featureflag.exception.FlagNotFoundException;
+import com.featureflag.exception.ScheduledRolloutNotFoundException;
+import com.featureflag.repository.FeatureFlagRepository;
+import com.featureflag.repository.ScheduledRolloutRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduledRolloutService {
+
+    private final ScheduledRolloutRepository rolloutRepository;
+    private final FeatureFlagRepository flagRepository;
+    private final RedissonClient redissonClient;
+
+    @Transactional
+    public List<ScheduledRolloutResponse> schedule(UUID flagId, ScheduleRolloutRequest request) {
+        if (!flagRepository.existsById(flagId)) {
+            throw new FlagNotFoundException(flagId);
+        }
+
+        Instant now = Instant.now();
+        List<ScheduledRollout> rollouts = request.getSteps().stream()
+                .map(step -> toEntity(flagId, step, request.getCreatedBy(), now))
+                .toList();
+        rollouts = rolloutRepository.saveAll(rollouts);
+        notifySchedulerAfterCommit();
+
+        log.info("Scheduled {} rollout steps for flag {} by {}", rollouts.size(), flagId, request.getCreatedBy());
+        return rollouts.stream()
+                .map(ScheduledRolloutResponse::fromEntity)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledRolloutResponse> getSchedule(UUID flagId) {
+        if (!flagRepository.existsById(flagId)) {
+            throw new FlagNotFoundException(flagId);
+        }
+        return rolloutRepository.findByFlagIdOrderByApplyAtAsc(flagId).stream()
+                .map(ScheduledRolloutResponse::fromEntity)
+                .toList();
+    }
+
+    @Transactional
+    public void cancel(UUID scheduleId) {
+        if (!rolloutRepository.existsById(scheduleId)) {
+            throw new ScheduledRolloutNotFoundException(scheduleId);
+        }
+        if (rolloutRepository.cancel(scheduleId) == 0) {
+            throw new IllegalArgumentException("Only pending rollout changes can be cancelled");
+        }
+        log.info("Cancelled scheduled rollout {}", scheduleId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ScheduledRollout> findDue(Instant until) {
+        return rolloutRepository.findPendingDueBefore(until);
+    }
+
+    /**
+     * Moves the change to APPLIED and writes the new percentage in one
+     * transaction, returning the environment of the flag it changed. Empty if
+     * it was cancelled or already applied in the meantime, e.g. by a previous
+     * leader that lost its lock mid-flight.
+     */
+    @Transactional
+    public Optional<UUID> apply(ScheduledRollout rollout) {
+        if (rolloutRepository.markApplied(rollout.getId(), Instant.now()) == 0) {
+            return Optional.empty();
+        }
+        if (flagRepository.updateRolloutPercentage(rollout.getFlagId(), rollout.getRolloutPercentage()) == 0) {
+            // Flag was deleted; the cascade will remove the schedule row as well
+            return Optional.empty();
+        }
+        return flagRepository.findEnvironmentIdById(rollout.getFlagId());
+    }
+
+    private ScheduledRollout toEntity(UUID flagId, RolloutStepRequest step, String createdBy, Instant now) {
+        if (step.getApplyAt().isBefore(now)) {
+            throw new IllegalArgumentException("Apply time must be in the future: " + step.getApplyAt());
+        }
+        return ScheduledRollout.builder()
+                .flagId(flagId)
+                .rolloutPercentage(step.getRolloutPercentage())
+                .applyAt(step.getApplyAt())
+                .createdBy(createdBy)
+                .build();
+    }
+
+    // Lets the leader pick up steps due before its next poll
+    private void notifySchedulerAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    redissonClient.getTopic(RolloutScheduler.CHANGES_TOPIC).publish("schedule");
+                } catch (RuntimeException e) {
+                    log.warn("Could not notify rollout scheduler, change will be picked up on next poll: {}",
+                            e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.featureflag.service;
+
+import com.featureflag.entity.Segment;
+import com.featureflag.evaluation.SegmentMembership;
+import com.featureflag.evaluation.SegmentResolver;
+import com.featureflag.repository.SegmentMemberRepository;
+import com.featureflag.repository.SegmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps compiled segment memberships across snapshot rebuilds. A segment's
+ * members are only reloaded when its {@code members_version} has moved, so a
+ * flag change does not re-read every referenced segment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SegmentMembershipCache {
+
+    private final SegmentRepository segmentRepository;
+    private final SegmentMemberRepository memberRepository;
+
+    private final Map<String, CachedMembership> memberships = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a resolver for a single snapshot build; each segment is checked
+     * against the database at most once per build however many rules use it.
+     */
+    public SegmentResolver resolver() {
+        Map<String, SegmentMembership> resolved = new HashMap<>();
+        return name -> resolved.computeIfAbsent(name, this::load);
+    }
+
+    private SegmentMembership load(String name) {
+        Segment segment = segmentRepository.findByName(name).orElse(null);
+        if (segment == null) {
+            memberships.remove(name);
+            return null;
+        }
+
+        CachedMembership cached = memberships.get(name);
+        if (cached != null && cached.segmentId().equals(segment.getId())
+                && cached.membersVersion() == segment.getMembersVersion()) {
+            return cached.membership();
+        }
+
+        SegmentMembership membership = SegmentMembership.of(memberRepository.findUserIds(segment.getId()));
+        memberships.put(name, new CachedMembership(segment.getId(), segment.getMembersVersion(), membership));
+        log.debug("Loaded segment {} v{} with {} members ({} bytes)", name,
+                segment.getMembersVersion(), membership.size(), membership.sizeInBytes());
+        return membership;
+    }
+
+    private record CachedMembership(UUID segmentId, long membersVersion, SegmentMembership membership) {}
+}
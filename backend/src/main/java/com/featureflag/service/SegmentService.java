@@ -0,0 +1,138 @@
+package com.featureflag.service;
+
+import com.featureflag.dto.CreateSegmentRequest;
+import com.featureflag.dto.SegmentMembersRequest;
+import com.featureflag.dto.SegmentResponse;
+import com.featureflag.entity.Segment;
+import com.featureflag.enums.RuleType;
+import com.featureflag.exception.DuplicateSegmentException;
+import com.featureflag.exception.SegmentNotFoundException;
+import com.featureflag.repository.FlagRuleRepository;
+import com.featureflag.repository.SegmentMemberRepository;
+import com.featureflag.repository.SegmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SegmentService {
+
+    private static final int MAX_USER_ID_LENGTH = 255;
+
+    private final SegmentRepository segmentRepository;
+    private final SegmentMemberRepository memberRepository;
+    private final FlagRuleRepository ruleRepository;
+    private final FlagCacheService cacheService;
+
+    @Transactional
+    public SegmentResponse createSegment(CreateSegmentRequest request) {
+        if (segmentRepository.existsByName(request.getName())) {
+            throw new DuplicateSegmentException("Segment already exists: " + request.getName());
+        }
+
+        Segment segment = Segment.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .build();
+        segment = segmentRepository.save(segment);
+
+        List<String> userIds = normalize(request.getUserIds());
+        if (!userIds.isEmpty()) {
+            memberRepository.addMembers(segment.getId(), userIds);
+        }
+
+        log.info("Created segment: {} with {} members", segment.getName(), userIds.size());
+        return SegmentResponse.fromEntity(segment, userIds.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SegmentResponse> getAllSegments() {
+        Map<UUID, Long> counts = memberRepository.countBySegment();
+        return segmentRepository.findAllByOrderByNameAsc().stream()
+                .map(s -> SegmentResponse.fromEntity(s, counts.getOrDefault(s.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public SegmentResponse getSegment(UUID id) {
+        Segment segment = segmentRepository.findById(id)
+                .orElseThrow(() -> new SegmentNotFoundException(id));
+        return SegmentResponse.fromEntity(segment, memberRepository.countBySegmentId(id));
+    }
+
+    @Transactional
+    public SegmentResponse addMembers(UUID id, SegmentMembersRequest request) {
+        Segment segment = segmentRepository.findById(id)
+                .orElseThrow(() -> new SegmentNotFoundException(id));
+
+        List<String> userIds = normalize(request.getUserIds());
+        memberRepository.addMembers(id, userIds);
+        onMembershipChanged(segment);
+
+        log.info("Added {} members to segment {}", userIds.size(), segment.getName());
+        return SegmentResponse.fromEntity(segment, memberRepository.countBySegmentId(id));
+    }
+
+    @Transactional
+    public SegmentResponse removeMembers(UUID id, SegmentMembersRequest request) {
+        Segment segment = segmentRepository.findById(id)
+                .orElseThrow(() -> new SegmentNotFoundException(id));
+
+        int removed = memberRepository.removeMembers(id, normalize(request.getUserIds()));
+        if (removed > 0) {
+            onMembershipChanged(segment);
+        }
+
+        log.info("Removed {} members from segment {}", removed, segment.getName());
+        return SegmentResponse.fromEntity(segment, memberRepository.countBySegmentId(id));
+    }
+
+    @Transactional
+    public void deleteSegment(UUID id) {
+        Segment segment = segmentRepository.findById(id)
+                .orElseThrow(() -> new SegmentNotFoundException(id));
+
+        long references = ruleRepository.countByRuleTypeAndRuleValue(RuleType.SEGMENT, segment.getName());
+        if (references > 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Segment %s is still referenced by %d rule(s)", segment.getName(), references));
+        }
+
+        segmentRepository.delete(segment);
+        log.info("Deleted segment: {}", segment.getName());
+    }
+
+    private void onMembershipChanged(Segment segment) {
+        segmentRepository.incrementMembersVersion(segment.getId());
+        segment.setMembersVersion(segment.getMembersVersion() + 1);
+
+        // Segments are shared, but only environments with flags that target this one need a new snapshot
+        ruleRepository.findEnvironmentIdsByRuleTypeAndRuleValue(RuleType.SEGMENT, segment.getName())
+                .forEach(cacheService::invalidateCache);
+    }
+
+    private List<String> normalize(List<String> userIds) {
+        if (userIds == null) {
+            return List.of();
+        }
+        List<String> normalized = userIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .map(String::trim)
+                .distinct()
+                .collect(Collectors.toList());
+        for (String id : normalized) {
+            if (id.length() > MAX_USER_ID_LENGTH) {
+                throw new IllegalArgumentException("User ID exceeds " + MAX_USER_ID_LENGTH + " characters");
+            }
+        }
+        return normalized;
+    }
+}
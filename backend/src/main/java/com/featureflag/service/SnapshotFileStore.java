@@ -0,0 +1,228 @@
+package com.featureflag.service;
+
+import com.featureflag.evaluation.FlagSnapshot;
+import com.featureflag.evaluation.SnapshotCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32C;
+
+/**
+ * Persists the last good snapshot of each environment to a local file so a
+ * restarting node can serve evaluations before Redis or the database answer.
+ * It does not let a node start during an outage: Flyway and schema
+ * validation need the database at boot.
+ *
+ * <p>One file per environment, {@code flag-snapshot-<environment id>.bin}.
+ * File layout: a fixed header (magic, format version, environment id, config
+ * version, written-at millis, key length, payload length, CRC32C of key and
+ * payload), the environment key, then the {@link SnapshotCodec} payload. The
+ * key lets requests that name the environment be resolved while the database
+ * is slow or unreachable. Reads memory-map the file; writes go to a temp file
+ * that is synced and atomically moved into place, so a crash mid-write leaves
+ * the previous snapshot intact.
+ */
+@Slf4j
+@Service
+public class SnapshotFileStore {
+
+    private static final int MAGIC = 0x46464C53; // "FFLS"
+    // Bumped whenever SnapshotCodec's layout changes; older files are ignored
+    private static final int FORMAT_VERSION = 4;
+    private static final int HEADER_BYTES = 4 + 4 + 16 + 8 + 8 + 4 + 4 + 8;
+    private static final String FILE_PREFIX = "flag-snapshot-";
+    private static final String FILE_SUFFIX = ".bin";
+
+    @Value("${featureflag.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${featureflag.snapshot.dir:data/snapshots}")
+    private Path dir;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "flag-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Skip rewriting identical content on every periodic refresh
+    private final Map<UUID, Written> lastWritten = new HashMap<>();
+
+    /**
+     * Every readable snapshot file, by environment. Unreadable files are
+     * skipped; their environments are loaded cold.
+     */
+    public Map<UUID, PersistedSnapshot> loadAll() {
+        if (!enabled || !Files.isDirectory(dir)) {
+            return Map.of();
+        }
+        Map<UUID, PersistedSnapshot> snapshots = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                load(file).ifPresent(persisted -> snapshots.put(persisted.environmentId(), persisted));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list snapshot files in {}: {}", dir, e.getMessage());
+        }
+        return snapshots;
+    }
+
+    private Optional<PersistedSnapshot> load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                log.warn("Ignoring snapshot file {}: not a snapshot", file);
+                return Optional.empty();
+            }
+            int format = buffer.getInt();
+            if (format != FORMAT_VERSION) {
+                log.warn("Ignoring snapshot file {}: unsupported format {}", file, format);
+                return Optional.empty();
+            }
+            UUID environmentId = new UUID(buffer.getLong(), buffer.getLong());
+            long version = buffer.getLong();
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            int keyLength = buffer.getInt();
+            int length = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (keyLength < 0 || length < 0 || (long) keyLength + length != buffer.remaining()) {
+                log.warn("Ignoring snapshot file {}: truncated", file);
+                return Optional.empty();
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate());
+            byte[] key = new byte[keyLength];
+            buffer.get(key);
+            ByteBuffer payload = buffer.slice();
+            if (crc.getValue() != checksum) {
+                log.warn("Ignoring snapshot file {}: checksum mismatch", file);
+                return Optional.empty();
+            }
+
+            FlagSnapshot snapshot = SnapshotCodec.decode(environmentId, version, payload);
+            synchronized (this) {
+                lastWritten.put(environmentId, new Written(version, checksum));
+            }
+            return Optional.of(new PersistedSnapshot(environmentId, new String(key, StandardCharsets.UTF_8),
+                    snapshot, writtenAt));
+        } catch (Exception e) {
+            log.warn("Failed to load snapshot file {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the environment's snapshot on a background thread; evaluation
+     * never waits on disk.
+     */
+    public void saveAsync(UUID environmentId, String environmentKey, FlagSnapshot snapshot) {
+        if (!enabled || snapshot.version() < 0) {
+            return;
+        }
+        writer.execute(() -> save(environmentId, environmentKey, snapshot));
+    }
+
+    /**
+     * Removes the snapshot of an environment that no longer exists, so it is
+     * not restored on the next start.
+     */
+    public void deleteAsync(UUID environmentId) {
+        if (!enabled) {
+            return;
+        }
+        writer.execute(() -> delete(environmentId));
+    }
+
+    private synchronized void save(UUID environmentId, String environmentKey, FlagSnapshot snapshot) {
+        Path file = fileFor(environmentId);
+        try {
+            byte[] key = environmentKey.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = SnapshotCodec.encode(snapshot);
+            CRC32C crc = new CRC32C();
+            crc.update(key);
+            crc.update(payload);
+            long checksum = crc.getValue();
+            if (new Written(snapshot.version(), checksum).equals(lastWritten.get(environmentId))) {
+                return;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(environmentId.getMostSignificantBits())
+                    .putLong(environmentId.getLeastSignificantBits())
+                    .putLong(snapshot.version())
+                    .putLong(System.currentTimeMillis())
+                    .putInt(key.length)
+                    .putInt(payload.length)
+                    .putLong(checksum)
+                    .flip();
+
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "flag-snapshot", ".tmp");
+            try {
+                ByteBuffer[] buffers = {header, ByteBuffer.wrap(key), ByteBuffer.wrap(payload)};
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    while (buffers[2].hasRemaining()) {
+                        channel.write(buffers);
+                    }
+                    channel.force(true);
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            lastWritten.put(environmentId, new Written(snapshot.version(), checksum));
+            log.debug("Persisted flag snapshot {} v{} ({} bytes) to {}",
+                    environmentKey, snapshot.version(), payload.length, file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to persist flag snapshot to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized void delete(UUID environmentId) {
+        Path file = fileFor(environmentId);
+        try {
+            Files.deleteIfExists(file);
+            lastWritten.remove(environmentId);
+        } catch (IOException e) {
+            log.warn("Failed to delete snapshot file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path fileFor(UUID environmentId) {
+        return dir.resolve(FILE_PREFIX + environmentId + FILE_SUFFIX);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public record PersistedSnapshot(UUID environmentId, String environmentKey, FlagSnapshot snapshot,
+                                    Instant writtenAt) {}
+
+    private record Written(long version, long checksum) {}
+}
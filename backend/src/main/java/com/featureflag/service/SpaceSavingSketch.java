@@ -0,0 +1,164 @@
+package com.featureflag.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k summary (Metwally et al.) in fixed memory: at most
+ * {@code capacity} counters. An unseen key evicts the smallest counter and
+ * inherits its count as error, so every reported count overestimates the
+ * true count by at most its error, and any key whose true count exceeds
+ * {@code total / capacity} is guaranteed to be present.
+ *
+ * <p>Counters live in an indexed binary min-heap, so updates cost O(log k).
+ * Not thread-safe; callers synchronize.
+ */
+class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<K, Integer> slots;
+    private int size;
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    void add(K key, long weight) {
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(slot);
+            return;
+        }
+        if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            slots.put(key, size);
+            siftUp(size++);
+            return;
+        }
+        // Replace the minimum, which sits at the root
+        slots.remove(keys[0]);
+        long floor = counts[0];
+        keys[0] = key;
+        counts[0] = floor + weight;
+        errors[0] = floor;
+        slots.put(key, 0);
+        siftDown(0);
+    }
+
+    /** Immutable copy of the current counters, largest first. */
+    @SuppressWarnings("unchecked")
+    Summary<K> summarize() {
+        List<Entry<K>> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry<>((K) keys[i], counts[i], errors[i]));
+        }
+        entries.sort(Entry.LARGEST_FIRST);
+        return new Summary<>(entries, size == capacity ? counts[0] : 0);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (counts[parent] <= counts[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slots.put((K) keys[a], a);
+        slots.put((K) keys[b], b);
+    }
+
+    /** A counter: the true count lies in {@code [count - error, count]}. */
+    record Entry<K>(K key, long count, long error) {
+
+        static final Comparator<Entry<?>> LARGEST_FIRST =
+                Comparator.comparingLong((Entry<?> entry) -> entry.count()).reversed();
+        static final Comparator<Entry<?>> MOST_GUARANTEED_FIRST =
+                Comparator.comparingLong((Entry<?> entry) -> entry.guaranteed()).reversed();
+
+        long guaranteed() {
+            return count - error;
+        }
+    }
+
+    /**
+     * Counters of one or more sketches, largest first. {@code floor} bounds
+     * the count of any key that is not listed.
+     */
+    record Summary<K>(List<Entry<K>> entries, long floor) {
+
+        /**
+         * Combines summaries of disjoint streams, keeping the {@code limit}
+         * largest counters. A key missing from a summary may still have up to
+         * that summary's floor there, which is added to both its count and its
+         * error, so the bounds stay valid.
+         */
+        static <K> Summary<K> merge(List<Summary<K>> summaries, int limit) {
+            long floors = summaries.stream().mapToLong(Summary::floor).sum();
+            Map<K, long[]> merged = new HashMap<>();
+            for (Summary<K> summary : summaries) {
+                for (Entry<K> entry : summary.entries()) {
+                    // Start from every floor, then swap in this summary's actual counter
+                    long[] totals = merged.computeIfAbsent(entry.key(), key -> new long[]{floors, floors});
+                    totals[0] += entry.count() - summary.floor();
+                    totals[1] += entry.error() - summary.floor();
+                }
+            }
+
+            List<Entry<K>> entries = new ArrayList<>(merged.size());
+            merged.forEach((key, totals) -> entries.add(new Entry<>(key, totals[0], totals[1])));
+            entries.sort(Entry.LARGEST_FIRST);
+            if (entries.size() <= limit) {
+                return new Summary<>(entries, floors);
+            }
+            long dropped = entries.get(limit).count();
+            return new Summary<>(List.copyOf(entries.subList(0, limit)), Math.max(floors, dropped));
+        }
+    }
+}
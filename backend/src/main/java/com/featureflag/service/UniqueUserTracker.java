@@ -0,0 +1,177 @@
+package com.featureflag.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RHyperLogLog;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximate distinct-user counts per flag, backed by hourly Redis
+ * HyperLogLog sketches ({@code PFADD}/{@code PFCOUNT}, ~0.8% standard error,
+ * 12 KB per key regardless of traffic).
+ *
+ * <p>The evaluation path only adds the user ID to a local per-(flag, hour)
+ * set; the sets are flushed to Redis in one {@code PFADD} per key every few
+ * seconds, so repeat users within a flush cost nothing and evaluation never
+ * waits on Redis. A window count is a single multi-key {@code PFCOUNT} over
+ * the hourly keys it spans, independent of evaluation volume.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UniqueUserTracker {
+
+    private static final String KEY_PREFIX = "featureflags:hll:";
+    private static final DateTimeFormatter HOUR_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+
+    private final RedissonClient redissonClient;
+
+    @Value("${featureflag.analytics.unique-users.retention-days:35}")
+    private int retentionDays;
+
+    @Value("${featureflag.analytics.unique-users.max-buffered:100000}")
+    private int maxBuffered;
+
+    // Swapped out whole by a flush, so a drained buffer is never written to again unnoticed
+    private final AtomicReference<Buffer> buffer = new AtomicReference<>(new Buffer());
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean overflowFlushStarted = new AtomicBoolean();
+
+    public void record(UUID flagId, String userId, boolean enabled) {
+        if (userId == null) {
+            return;
+        }
+        String hour = HOUR_FORMAT.format(Instant.now());
+        add(key(flagId, hour, false), userId);
+        if (enabled) {
+            add(key(flagId, hour, true), userId);
+        }
+    }
+
+    private void add(String key, String userId) {
+        Buffer current;
+        boolean added;
+        do {
+            current = buffer.get();
+            added = current.add(key, userId);
+            // A flush swapped the buffer out meanwhile and may have drained it already; add to the
+            // new one too (a repeat is harmless in a HyperLogLog)
+        } while (buffer.get() != current);
+        if (added && current.size.get() > maxBuffered
+                // A flush already under way is draining the buffer; start at most one more
+                && !flushing.get()
+                && overflowFlushStarted.compareAndSet(false, true)) {
+            // Bound memory under bursts instead of waiting for the next scheduled flush
+            Thread.ofVirtual().start(() -> {
+                try {
+                    flush();
+                } finally {
+                    overflowFlushStarted.set(false);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${featureflag.analytics.unique-users.flush-interval-ms:5000}")
+    public void flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Duration ttl = Duration.ofDays(retentionDays);
+            Buffer drained = buffer.getAndSet(new Buffer());
+            for (Map.Entry<String, Set<String>> entry : drained.users.entrySet()) {
+                String key = entry.getKey();
+                Set<String> users = entry.getValue();
+                if (users.isEmpty()) continue;
+                try {
+                    RHyperLogLog<String> sketch = redissonClient.getHyperLogLog(key);
+                    sketch.addAll(users);
+                    sketch.expire(ttl);
+                } catch (Exception e) {
+                    log.warn("Failed to flush unique users for {}: {}", key, e.getMessage());
+                }
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Start of the window {@link #countUniqueUsers} covers for {@code since}:
+     * the start of its hour, but no earlier than the sketches are kept for.
+     * Callers reporting a longer window must say it was truncated.
+     */
+    public Instant coveredSince(Instant since) {
+        Instant earliest = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+        return (since.isBefore(earliest) ? earliest : since).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Distinct users evaluated for the flag from {@link #coveredSince(Instant)
+     * coveredSince(since)} up to now.
+     */
+    public long countUniqueUsers(UUID flagId, Instant since, boolean enabledOnly) {
+        List<String> keys = new ArrayList<>();
+        Instant end = Instant.now();
+        for (Instant hour = coveredSince(since); !hour.isAfter(end); hour = hour.plus(1, ChronoUnit.HOURS)) {
+            keys.add(key(flagId, HOUR_FORMAT.format(hour), enabledOnly));
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            RHyperLogLog<String> first = redissonClient.getHyperLogLog(keys.get(0));
+            return keys.size() == 1
+                    ? first.count()
+                    : first.countWith(keys.subList(1, keys.size()).toArray(new String[0]));
+        } catch (Exception e) {
+            log.warn("Failed to count unique users for flag {}: {}", flagId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String key(UUID flagId, String hour, boolean enabledOnly) {
+        return KEY_PREFIX + flagId + ":" + hour + (enabledOnly ? ":enabled" : ":all");
+    }
+
+    private static final class Buffer {
+        final Map<String, Set<String>> users = new ConcurrentHashMap<>();
+        // Distinct (key, user) pairs added, for the overflow bound
+        final AtomicInteger size = new AtomicInteger();
+
+        boolean add(String key, String userId) {
+            if (users.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(userId)) {
+                size.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
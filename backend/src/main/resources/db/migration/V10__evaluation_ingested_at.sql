@@ -0,0 +1,9 @@
+-- When a row reached the database, as opposed to when the evaluation happened.
+-- Events replayed from a node's local spool can arrive long after evaluated_at,
+-- so rollup compaction and raw retention follow ingestion time instead.
+ALTER TABLE flag_evaluations ADD COLUMN ingested_at TIMESTAMP WITH TIME ZONE;
+UPDATE flag_evaluations SET ingested_at = evaluated_at;
+ALTER TABLE flag_evaluations ALTER COLUMN ingested_at SET DEFAULT NOW();
+ALTER TABLE flag_evaluations ALTER COLUMN ingested_at SET NOT NULL;
+
+CREATE INDEX idx_evaluations_ingested_at ON flag_evaluations(ingested_at);
@@ -0,0 +1,5 @@
+-- Repeat exposures suppressed before logging are recorded as one row per
+-- (flag, outcome, minute) without a user, carrying how many evaluations it
+-- stands for. Every other row counts once.
+ALTER TABLE flag_evaluations ADD COLUMN event_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE flag_evaluations ALTER COLUMN user_id DROP NOT NULL;
@@ -0,0 +1,38 @@
+-- Projects group environments; every flag belongs to exactly one environment
+-- and is compiled only into that environment's snapshot
+CREATE TABLE projects (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    key VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- Keys are unique across projects, so evaluators address an environment by its key alone
+CREATE TABLE environments (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    project_id UUID NOT NULL REFERENCES projects(id) ON DELETE RESTRICT,
+    key VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_environments_project ON environments(project_id);
+
+-- Existing flags move into default/production, which also serves requests that name no environment
+INSERT INTO projects (key, name) VALUES ('default', 'Default');
+INSERT INTO environments (project_id, key, name)
+SELECT id, 'production', 'Production' FROM projects WHERE key = 'default';
+
+ALTER TABLE feature_flags ADD COLUMN environment_id UUID REFERENCES environments(id) ON DELETE RESTRICT;
+UPDATE feature_flags SET environment_id = (SELECT id FROM environments WHERE key = 'production');
+ALTER TABLE feature_flags ALTER COLUMN environment_id SET NOT NULL;
+
+-- Names are unique per environment, so the same flag can exist in staging and production
+ALTER TABLE feature_flags DROP CONSTRAINT feature_flags_name_key;
+ALTER TABLE feature_flags ADD CONSTRAINT unique_flag_name_per_environment UNIQUE (environment_id, name);
+
+-- Listing within an environment keeps the newest-first keyset order
+CREATE INDEX idx_flags_environment_created_at ON feature_flags(environment_id, created_at DESC, id DESC);
+
+-- Snapshot loads read one environment's enabled flags
+CREATE INDEX idx_flags_environment_enabled ON feature_flags(environment_id) WHERE enabled;
@@ -0,0 +1,16 @@
+-- Keyset pagination and filtering for the paged flag listing
+
+-- Default order: newest first, id as tie-breaker for a stable cursor
+CREATE INDEX idx_flags_created_at_id ON feature_flags(created_at DESC, id DESC);
+
+-- Filters that keep the same order
+CREATE INDEX idx_flags_created_by_created_at ON feature_flags(created_by, created_at DESC, id DESC);
+CREATE INDEX idx_flags_enabled_created_at ON feature_flags(enabled, created_at DESC, id DESC);
+CREATE INDEX idx_flags_updated_at ON feature_flags(updated_at);
+
+-- Name prefix filter (LIKE 'prefix%') independent of collation
+CREATE INDEX idx_flags_name_pattern ON feature_flags(name varchar_pattern_ops);
+
+-- Substring name search (ILIKE '%term%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_flags_name_trgm ON feature_flags USING gin (name gin_trgm_ops);
@@ -0,0 +1,10 @@
+-- A flag is only considered for a user once every prerequisite flag is on for that user.
+-- The edges must stay acyclic; the service checks that under an advisory lock on write.
+CREATE TABLE flag_prerequisites (
+    flag_id UUID NOT NULL REFERENCES feature_flags(id) ON DELETE CASCADE,
+    prerequisite_id UUID NOT NULL REFERENCES feature_flags(id) ON DELETE RESTRICT,
+    PRIMARY KEY (flag_id, prerequisite_id),
+    CONSTRAINT no_self_prerequisite CHECK (flag_id <> prerequisite_id)
+);
+
+CREATE INDEX idx_flag_prerequisites_prerequisite ON flag_prerequisites(prerequisite_id);
@@ -0,0 +1,6 @@
+-- Multivariate flags: users a flag is on for are split across weighted variants.
+-- Stored inline as [{"key": ..., "value": <any JSON>, "weight": n}]; NULL for plain boolean flags.
+ALTER TABLE feature_flags ADD COLUMN variants JSONB;
+
+-- Variant served with each logged evaluation, NULL when the flag was off or is boolean
+ALTER TABLE flag_evaluations ADD COLUMN variant VARCHAR(100);
@@ -0,0 +1,15 @@
+-- Future rollout percentage changes for a flag, applied by the scheduler leader
+CREATE TABLE scheduled_rollouts (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    flag_id UUID NOT NULL REFERENCES feature_flags(id) ON DELETE CASCADE,
+    rollout_percentage INTEGER NOT NULL CHECK (rollout_percentage >= 0 AND rollout_percentage <= 100),
+    apply_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    applied_at TIMESTAMP WITH TIME ZONE,
+    created_by VARCHAR(100),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_scheduled_rollouts_flag ON scheduled_rollouts(flag_id, apply_at);
+-- The scheduler only ever scans pending changes by due time
+CREATE INDEX idx_scheduled_rollouts_pending ON scheduled_rollouts(apply_at) WHERE status = 'PENDING';
@@ -0,0 +1,29 @@
+-- Pre-aggregated evaluation counts at minute, hour and day resolution.
+-- Raw rows are rolled up into minutes, minutes into hours and hours into days;
+-- each tier is kept only as long as charts at its resolution need it.
+CREATE TABLE evaluation_rollups (
+    flag_id UUID NOT NULL REFERENCES feature_flags(id) ON DELETE CASCADE,
+    resolution VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    reason VARCHAR(50) NOT NULL,
+    -- '' for boolean flags, so the column can be part of the key
+    variant VARCHAR(100) NOT NULL DEFAULT '',
+    enabled_count BIGINT NOT NULL DEFAULT 0,
+    disabled_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (flag_id, resolution, bucket_start, reason, variant)
+);
+
+-- Compaction scans one tier by time across all flags
+CREATE INDEX idx_evaluation_rollups_bucket ON evaluation_rollups(resolution, bucket_start);
+
+-- Everything before rolled_up_to has been folded into the tier, so the
+-- source can be read from that point on without double counting
+CREATE TABLE evaluation_rollup_watermarks (
+    resolution VARCHAR(10) PRIMARY KEY,
+    rolled_up_to TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Start from the oldest retained raw row so existing history is backfilled
+INSERT INTO evaluation_rollup_watermarks (resolution, rolled_up_to)
+SELECT tier, date_trunc('day', COALESCE((SELECT MIN(evaluated_at) FROM flag_evaluations), NOW()), 'UTC')
+FROM (VALUES ('MINUTE'), ('HOUR'), ('DAY')) AS tiers(tier);
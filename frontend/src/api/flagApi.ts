@@ -1,13 +1,27 @@
 import axios from 'axios';
 import type {
   Flag,
+  FlagVariant,
+  RolloutStep,
+  ScheduledRollout,
+  FlagPage,
+  FlagPageQuery,
   Rule,
   CreateFlagRequest,
   UpdateFlagRequest,
+  BulkFlagRequest,
+  BulkFlagResult,
   CreateRuleRequest,
   EvaluateRequest,
   EvaluationResponse,
   Analytics,
+  AnalyticsSummary,
+  LiveAnalyticsEvent,
+  HeavyHitters,
+  Project,
+  Environment,
+  CreateProjectRequest,
+  CreateEnvironmentRequest,
   ApiResponse,
 } from '../types';
 
@@ -32,8 +46,14 @@ const api = axios.create({
 });
 
 // Flags
-export const getFlags = async (): Promise<Flag[]> => {
-  const response = await api.get<ApiResponse<Flag[]>>('/flags');
+// Flag-listing, create, bulk, evaluation and summary calls take an environment key; the backend defaults to production
+export const getFlags = async (environment?: string): Promise<Flag[]> => {
+  const response = await api.get<ApiResponse<Flag[]>>('/flags', { params: { environment } });
+  return response.data.data;
+};
+
+export const getFlagPage = async (query: FlagPageQuery = {}): Promise<FlagPage> => {
+  const response = await api.get<ApiResponse<FlagPage>>('/flags/page', { params: query });
   return response.data.data;
 };
 
@@ -42,8 +62,8 @@ export const getFlag = async (id: string): Promise<Flag> => {
   return response.data.data;
 };
 
-export const createFlag = async (data: CreateFlagRequest): Promise<Flag> => {
-  const response = await api.post<ApiResponse<Flag>>('/flags', data);
+export const createFlag = async (data: CreateFlagRequest, environment?: string): Promise<Flag> => {
+  const response = await api.post<ApiResponse<Flag>>('/flags', data, { params: { environment } });
   return response.data.data;
 };
 
@@ -60,6 +80,57 @@ export const deleteFlag = async (id: string): Promise<void> => {
   await api.delete(`/flags/${id}`);
 };
 
+// Bulk operations: select flags with ids or namePrefix
+export const bulkToggleFlags = async (request: BulkFlagRequest, environment?: string): Promise<BulkFlagResult> => {
+  const response = await api.patch<ApiResponse<BulkFlagResult>>('/flags/bulk/toggle', request, { params: { environment } });
+  return response.data.data;
+};
+
+export const bulkUpdateFlags = async (request: BulkFlagRequest, environment?: string): Promise<BulkFlagResult> => {
+  const response = await api.patch<ApiResponse<BulkFlagResult>>('/flags/bulk', request, { params: { environment } });
+  return response.data.data;
+};
+
+export const bulkDeleteFlags = async (request: BulkFlagRequest, environment?: string): Promise<BulkFlagResult> => {
+  const response = await api.post<ApiResponse<BulkFlagResult>>('/flags/bulk/delete', request, { params: { environment } });
+  return response.data.data;
+};
+
+export const setVariants = async (flagId: string, variants: FlagVariant[]): Promise<Flag> => {
+  const response = await api.put<ApiResponse<Flag>>(`/flags/${flagId}/variants`, { variants });
+  return response.data.data;
+};
+
+// Prerequisites
+export const addPrerequisite = async (flagId: string, prerequisiteId: string): Promise<Flag> => {
+  const response = await api.put<ApiResponse<Flag>>(`/flags/${flagId}/prerequisites/${prerequisiteId}`);
+  return response.data.data;
+};
+
+export const removePrerequisite = async (flagId: string, prerequisiteId: string): Promise<Flag> => {
+  const response = await api.delete<ApiResponse<Flag>>(`/flags/${flagId}/prerequisites/${prerequisiteId}`);
+  return response.data.data;
+};
+
+// Scheduled rollouts
+export const scheduleRollout = async (
+  flagId: string,
+  steps: RolloutStep[],
+  createdBy?: string
+): Promise<ScheduledRollout[]> => {
+  const response = await api.post<ApiResponse<ScheduledRollout[]>>(`/flags/${flagId}/schedule`, { steps, createdBy });
+  return response.data.data;
+};
+
+export const getSchedule = async (flagId: string): Promise<ScheduledRollout[]> => {
+  const response = await api.get<ApiResponse<ScheduledRollout[]>>(`/flags/${flagId}/schedule`);
+  return response.data.data;
+};
+
+export const cancelScheduledRollout = async (scheduleId: string): Promise<void> => {
+  await api.delete(`/flags/schedule/${scheduleId}`);
+};
+
 // Rules
 export const getRules = async (flagId: string): Promise<Rule[]> => {
   const response = await api.get<ApiResponse<Rule[]>>(`/flags/${flagId}/rules`);
@@ -80,8 +151,8 @@ export const deleteRule = async (ruleId: string): Promise<void> => {
 };
 
 // Evaluation
-export const evaluateFlags = async (data: EvaluateRequest): Promise<EvaluationResponse> => {
-  const response = await api.post<ApiResponse<EvaluationResponse>>('/flags/evaluate', data);
+export const evaluateFlags = async (data: EvaluateRequest, environment?: string): Promise<EvaluationResponse> => {
+  const response = await api.post<ApiResponse<EvaluationResponse>>('/flags/evaluate', data, { params: { environment } });
   return response.data.data;
 };
 
@@ -91,6 +162,54 @@ export const getAnalytics = async (flagId: string, hours: number = 24): Promise<
   return response.data.data;
 };
 
+export const getAnalyticsSummary = async (hours: number = 24, environment?: string): Promise<AnalyticsSummary> => {
+  const response = await api.get<ApiResponse<AnalyticsSummary>>('/flags/analytics/summary', {
+    params: { hours, environment },
+  });
+  return response.data.data;
+};
+
+// Per-second counts for one flag, or for all flags when flagId is omitted. Call close() on the result to stop
+export const streamAnalytics = (
+  onEvent: (event: LiveAnalyticsEvent) => void,
+  flagId?: string,
+): EventSource => {
+  const path = flagId ? `/flags/${flagId}/analytics/live` : '/flags/analytics/live';
+  const source = new EventSource(`${API_BASE}${path}`);
+  source.addEventListener('evaluations', (message) => {
+    onEvent(JSON.parse((message as MessageEvent<string>).data) as LiveAnalyticsEvent);
+  });
+  return source;
+};
+
+// Projects & environments
+export const getProjects = async (): Promise<Project[]> => {
+  const response = await api.get<ApiResponse<Project[]>>('/projects');
+  return response.data.data;
+};
+
+export const createProject = async (data: CreateProjectRequest): Promise<Project> => {
+  const response = await api.post<ApiResponse<Project>>('/projects', data);
+  return response.data.data;
+};
+
+export const createEnvironment = async (projectKey: string, data: CreateEnvironmentRequest): Promise<Environment> => {
+  const response = await api.post<ApiResponse<Environment>>(`/projects/${projectKey}/environments`, data);
+  return response.data.data;
+};
+
+export const deleteEnvironment = async (projectKey: string, environmentKey: string): Promise<void> => {
+  await api.delete(`/projects/${projectKey}/environments/${environmentKey}`);
+};
+
+// Admin
+export const getHeavyHitters = async (windowMinutes: number = 5, limit: number = 20): Promise<HeavyHitters> => {
+  const response = await api.get<ApiResponse<HeavyHitters>>(
+    `/admin/heavy-hitters?windowMinutes=${windowMinutes}&limit=${limit}`
+  );
+  return response.data.data;
+};
+
 // Health
 export const healthCheck = async (): Promise<Record<string, unknown>> => {
   const response = await api.get<ApiResponse<Record<string, unknown>>>('/health');
@@ -11,6 +11,11 @@ import {
   Mail,
   Globe,
   Percent,
+  Hash,
+  Tag,
+  List,
+  Regex,
+  Users,
   Pencil,
   Check,
   X,
@@ -36,6 +41,11 @@ const RULE_TYPE_ICONS: Record<RuleType, typeof User> = {
   EMAIL_EXACT: Mail,
   COUNTRY: Globe,
   PERCENTAGE_GROUP: Percent,
+  NUMBER_RANGE: Hash,
+  SEMVER: Tag,
+  IN_SET: List,
+  REGEX: Regex,
+  SEGMENT: Users,
 };
 
 const RULE_TYPE_LABELS: Record<RuleType, string> = {
@@ -44,14 +54,36 @@ const RULE_TYPE_LABELS: Record<RuleType, string> = {
   EMAIL_EXACT: 'Email (Exact)',
   COUNTRY: 'Country',
   PERCENTAGE_GROUP: 'Percentage Group',
+  NUMBER_RANGE: 'Number Range',
+  SEMVER: 'Version',
+  IN_SET: 'In Set',
+  REGEX: 'Regex',
+  SEGMENT: 'Segment',
+};
+
+const RULE_TYPE_PLACEHOLDERS: Partial<Record<RuleType, string>> = {
+  EMAIL_DOMAIN: '@company.com',
+  NUMBER_RANGE: 'accountAgeDays:30..365',
+  SEMVER: 'appVersion:>=2.3.0',
+  IN_SET: 'plan:pro,enterprise',
+  REGEX: 'deviceModel:^Pixel',
+  SEGMENT: 'beta_cohort',
 };
 
 const PIE_COLORS = ['#22c55e', '#ef4444'];
 
+const ANALYTICS_WINDOWS = [
+  { hours: 24, label: 'Last 24 hours' },
+  { hours: 24 * 7, label: 'Last 7 days' },
+  { hours: 24 * 30, label: 'Last 30 days' },
+  { hours: 24 * 90, label: 'Last 90 days' },
+];
+
 export default function FlagDetails() {
   const { id } = useParams<{ id: string }>();
   const [flag, setFlag] = useState<Flag | null>(null);
   const [analytics, setAnalytics] = useState<Analytics | null>(null);
+  const [analyticsHours, setAnalyticsHours] = useState(24);
   const [loading, setLoading] = useState(true);
   const [showRuleForm, setShowRuleForm] = useState(false);
   const [newRule, setNewRule] = useState<CreateRuleRequest>({
@@ -69,12 +101,20 @@ export default function FlagDetails() {
     }
   }, [id]);
 
+  useEffect(() => {
+    if (id && analytics) {
+      getAnalytics(id, analyticsHours)
+        .then(setAnalytics)
+        .catch((err) => console.error('Failed to load analytics:', err));
+    }
+  }, [analyticsHours]);
+
   const loadData = async () => {
     try {
       setLoading(true);
       const [flagData, analyticsData] = await Promise.all([
         getFlag(id!),
-        getAnalytics(id!, 24),
+        getAnalytics(id!, analyticsHours),
       ]);
       setFlag(flagData);
       setAnalytics(analyticsData);
@@ -166,7 +206,9 @@ export default function FlagDetails() {
     : [];
 
   const timeSeriesData = analytics?.evaluationsOverTime.map((point) => ({
-    time: new Date(point.timestamp).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' }),
+    time: analytics.resolution === 'DAY'
+      ? new Date(point.timestamp).toLocaleDateString([], { month: 'short', day: 'numeric' })
+      : new Date(point.timestamp).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' }),
     enabled: point.enabledCount,
     disabled: point.disabledCount,
     total: point.totalCount,
@@ -295,7 +337,7 @@ export default function FlagDetails() {
                   type="text"
                   value={newRule.ruleValue}
                   onChange={(e) => setNewRule({ ...newRule, ruleValue: e.target.value })}
-                  placeholder={newRule.ruleType === 'EMAIL_DOMAIN' ? '@company.com' : 'value'}
+                  placeholder={RULE_TYPE_PLACEHOLDERS[newRule.ruleType] ?? 'value'}
                   className="w-full px-3 py-2 border border-gray-300 rounded-lg text-sm font-mono"
                   required
                 />
@@ -373,9 +415,20 @@ export default function FlagDetails() {
       {/* Analytics */}
       {analytics && (
         <div className="bg-white rounded-xl shadow-sm border border-gray-200 p-6">
-          <h2 className="text-lg font-semibold text-gray-900 mb-4">Analytics (Last 24 Hours)</h2>
+          <div className="flex items-center justify-between mb-4">
+            <h2 className="text-lg font-semibold text-gray-900">Analytics</h2>
+            <select
+              value={analyticsHours}
+              onChange={(e) => setAnalyticsHours(Number(e.target.value))}
+              className="px-3 py-1.5 border border-gray-300 rounded-lg text-sm"
+            >
+              {ANALYTICS_WINDOWS.map(({ hours, label }) => (
+                <option key={hours} value={hours}>{label}</option>
+              ))}
+            </select>
+          </div>
 
-          <div className="grid grid-cols-4 gap-4 mb-6">
+          <div className="grid grid-cols-3 gap-4 mb-6">
             <div className="bg-gray-50 rounded-lg p-4">
               <div className="text-2xl font-bold text-gray-900">{analytics.totalEvaluations.toLocaleString()}</div>
               <div className="text-sm text-gray-500">Total Evaluations</div>
@@ -392,8 +445,32 @@ export default function FlagDetails() {
               <div className="text-2xl font-bold text-blue-600">{analytics.enabledPercentage}%</div>
               <div className="text-sm text-gray-500">Actual Rollout</div>
             </div>
+            <div className="bg-purple-50 rounded-lg p-4">
+              <div className="text-2xl font-bold text-purple-600">~{analytics.uniqueUsers.toLocaleString()}</div>
+              <div className="text-sm text-gray-500">Unique Users</div>
+            </div>
+            <div className="bg-purple-50 rounded-lg p-4">
+              <div className="text-2xl font-bold text-purple-600">~{analytics.uniqueEnabledUsers.toLocaleString()}</div>
+              <div className="text-sm text-gray-500">Unique Users Enabled</div>
+            </div>
           </div>
 
+          {Object.keys(analytics.evaluationsByVariant ?? {}).length > 0 && (
+            <div className="mb-6">
+              <h3 className="text-sm font-medium text-gray-700 mb-2">Variants</h3>
+              <div className="grid grid-cols-3 gap-4">
+                {Object.entries(analytics.evaluationsByVariant)
+                  .sort(([a], [b]) => a.localeCompare(b))
+                  .map(([variant, count]) => (
+                    <div key={variant} className="bg-indigo-50 rounded-lg p-4">
+                      <div className="text-2xl font-bold text-indigo-600">{count.toLocaleString()}</div>
+                      <div className="text-sm text-gray-500 font-mono">{variant}</div>
+                    </div>
+                  ))}
+              </div>
+            </div>
+          )}
+
           <div className="grid grid-cols-3 gap-6">
             <div className="col-span-2">
               <h3 className="text-sm font-medium text-gray-700 mb-2">Evaluations Over Time</h3>
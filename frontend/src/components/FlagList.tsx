@@ -1,36 +1,59 @@
 import { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
-import { Flag, Plus, ToggleLeft, ToggleRight, Trash2, Settings, Loader2 } from 'lucide-react';
-import type { Flag as FlagType } from '../types';
-import { getFlags, toggleFlag, deleteFlag } from '../api/flagApi';
+import { Flag, Plus, ToggleLeft, ToggleRight, Trash2, Settings, Loader2, Search } from 'lucide-react';
+import type { Flag as FlagType, FlagSummary } from '../types';
+import { getFlagPage, toggleFlag, deleteFlag } from '../api/flagApi';
 import FlagModal from './FlagModal';
 
 export default function FlagList() {
-  const [flags, setFlags] = useState<FlagType[]>([]);
+  const [flags, setFlags] = useState<FlagSummary[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [search, setSearch] = useState('');
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [initialLoad, setInitialLoad] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [showModal, setShowModal] = useState(false);
   const [editingFlag, setEditingFlag] = useState<FlagType | null>(null);
 
   useEffect(() => {
-    loadFlags();
-  }, []);
+    const timer = setTimeout(() => loadFlags(), 250);
+    return () => clearTimeout(timer);
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [search]);
 
   const loadFlags = async () => {
     try {
       setLoading(true);
-      const data = await getFlags();
-      setFlags(data);
+      const page = await getFlagPage({ search: search || undefined });
+      setFlags(page.items);
+      setNextCursor(page.nextCursor);
       setError(null);
     } catch (err) {
       setError('Failed to load flags');
       console.error(err);
     } finally {
       setLoading(false);
+      setInitialLoad(false);
     }
   };
 
-  const handleToggle = async (flag: FlagType) => {
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getFlagPage({ cursor: nextCursor, search: search || undefined });
+      setFlags([...flags, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Failed to load flags');
+      console.error(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const handleToggle = async (flag: FlagSummary) => {
     try {
       await toggleFlag(flag.id, !flag.enabled);
       setFlags(flags.map(f =>
@@ -58,7 +81,8 @@ export default function FlagList() {
     loadFlags();
   };
 
-  if (loading) {
+  // Only the first load replaces the page; later searches keep the input mounted
+  if (initialLoad) {
     return (
       <div className="flex items-center justify-center h-64">
         <Loader2 className="w-8 h-8 animate-spin text-blue-500" />
@@ -82,6 +106,20 @@ export default function FlagList() {
         </button>
       </div>
 
+      <div className="relative">
+        <Search className="w-4 h-4 text-gray-400 absolute left-3 top-1/2 -translate-y-1/2" />
+        <input
+          type="text"
+          value={search}
+          onChange={(e) => setSearch(e.target.value)}
+          placeholder="Search flags by name..."
+          className="w-full pl-9 pr-9 py-2 border border-gray-300 rounded-lg text-sm"
+        />
+        {loading && (
+          <Loader2 className="w-4 h-4 text-gray-400 animate-spin absolute right-3 top-1/2 -translate-y-1/2" />
+        )}
+      </div>
+
       {error && (
         <div className="bg-red-50 border border-red-200 text-red-700 px-4 py-3 rounded-lg">
           {error}
@@ -172,6 +210,19 @@ export default function FlagList() {
         </table>
       </div>
 
+      {nextCursor && (
+        <div className="flex justify-center">
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            className="flex items-center gap-2 px-4 py-2 text-sm text-blue-600 border border-blue-200 rounded-lg hover:bg-blue-50 transition disabled:opacity-50"
+          >
+            {loadingMore && <Loader2 className="w-4 h-4 animate-spin" />}
+            Load more
+          </button>
+        </div>
+      )}
+
       {showModal && (
         <FlagModal
           flag={editingFlag}
@@ -5,6 +5,7 @@ import { evaluateFlags } from '../api/flagApi';
 
 const REASON_LABELS: Record<EvaluationReason, string> = {
   FLAG_DISABLED: 'Flag is disabled',
+  PREREQUISITE_FAILED: 'A prerequisite flag is off',
   RULE_MATCH: 'Matched targeting rule',
   ROLLOUT_INCLUDED: 'Included in rollout percentage',
   ROLLOUT_EXCLUDED: 'Excluded from rollout percentage',
@@ -126,6 +127,12 @@ export default function FlagTester() {
             Results for <span className="font-mono text-blue-600">{userId}</span>
           </h2>
 
+          {result.stale && (
+            <div className="mb-4 bg-yellow-50 border border-yellow-200 text-yellow-800 px-4 py-3 rounded-lg text-sm">
+              Served from a stale snapshot (v{result.snapshotVersion}) because Redis or the database was slow or unavailable.
+            </div>
+          )}
+
           {flagEntries.length === 0 ? (
             <p className="text-gray-500 text-center py-8">
               No enabled flags found. Create some flags first!
@@ -171,6 +178,14 @@ export default function FlagTester() {
                         <div>
                           <div className="font-medium">{REASON_LABELS[detail.reason]}</div>
                           <div className="text-gray-500">{detail.explanation}</div>
+                          {detail.variant && (
+                            <div className="mt-1 text-gray-700">
+                              Variant: <span className="font-mono">{detail.variant}</span>
+                              {detail.variantValue !== undefined && (
+                                <span className="ml-2 font-mono text-gray-500">{JSON.stringify(detail.variantValue)}</span>
+                              )}
+                            </div>
+                          )}
                         </div>
                       </div>
                     )}
@@ -1,17 +1,109 @@
-export type RuleType = 'USER_ID' | 'EMAIL_DOMAIN' | 'EMAIL_EXACT' | 'COUNTRY' | 'PERCENTAGE_GROUP';
-export type EvaluationReason = 'FLAG_DISABLED' | 'RULE_MATCH' | 'ROLLOUT_INCLUDED' | 'ROLLOUT_EXCLUDED' | 'NO_RULES_DEFAULT';
+export type RuleType =
+  | 'USER_ID'
+  | 'EMAIL_DOMAIN'
+  | 'EMAIL_EXACT'
+  | 'COUNTRY'
+  | 'PERCENTAGE_GROUP'
+  | 'NUMBER_RANGE'
+  | 'SEMVER'
+  | 'IN_SET'
+  | 'REGEX'
+  | 'SEGMENT';
+export type EvaluationReason = 'FLAG_DISABLED' | 'PREREQUISITE_FAILED' | 'RULE_MATCH' | 'ROLLOUT_INCLUDED' | 'ROLLOUT_EXCLUDED' | 'NO_RULES_DEFAULT';
+
+export interface Environment {
+  id: string;
+  key: string;
+  name: string;
+  createdAt: string;
+}
+
+export interface Project {
+  id: string;
+  key: string;
+  name: string;
+  createdAt: string;
+  environments: Environment[];
+}
+
+export interface CreateProjectRequest {
+  key: string;
+  name: string;
+}
+
+export interface CreateEnvironmentRequest {
+  key: string;
+  name: string;
+}
 
 export interface Flag {
   id: string;
+  environmentId: string;
   name: string;
   description: string;
   enabled: boolean;
   rolloutPercentage: number;
+  variants?: FlagVariant[] | null;
   createdBy: string | null;
   createdAt: string;
   updatedAt: string;
   rules?: Rule[];
   rulesCount?: number;
+  prerequisiteIds?: string[];
+}
+
+export interface FlagVariant {
+  key: string;
+  value: unknown;
+  weight: number;
+}
+
+export type ScheduleStatus = 'PENDING' | 'APPLIED' | 'CANCELLED';
+
+export interface RolloutStep {
+  rolloutPercentage: number;
+  applyAt: string;
+}
+
+export interface ScheduledRollout {
+  id: string;
+  flagId: string;
+  rolloutPercentage: number;
+  applyAt: string;
+  status: ScheduleStatus;
+  appliedAt: string | null;
+  createdBy: string | null;
+  createdAt: string;
+}
+
+export interface FlagSummary {
+  id: string;
+  environmentId: string;
+  name: string;
+  description: string | null;
+  enabled: boolean;
+  rolloutPercentage: number;
+  createdBy: string | null;
+  createdAt: string;
+  updatedAt: string;
+  rulesCount: number;
+}
+
+export interface FlagPage {
+  items: FlagSummary[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
+export interface FlagPageQuery {
+  environment?: string;
+  cursor?: string;
+  limit?: number;
+  enabled?: boolean;
+  namePrefix?: string;
+  createdBy?: string;
+  updatedSince?: string;
+  search?: string;
 }
 
 export interface Rule {
@@ -39,6 +131,18 @@ export interface UpdateFlagRequest {
   rolloutPercentage?: number;
 }
 
+export interface BulkFlagRequest {
+  ids?: string[];
+  namePrefix?: string;
+  enabled?: boolean;
+  rolloutPercentage?: number;
+}
+
+export interface BulkFlagResult {
+  affected: number;
+  flagNames: string[];
+}
+
 export interface CreateRuleRequest {
   ruleType: RuleType;
   ruleValue: string;
@@ -50,6 +154,7 @@ export interface EvaluateRequest {
   userId: string;
   userEmail?: string;
   country?: string;
+  attributes?: Record<string, unknown>;
 }
 
 export interface EvaluationDetail {
@@ -57,11 +162,17 @@ export interface EvaluationDetail {
   reason: EvaluationReason;
   matchedRuleId?: string;
   explanation: string;
+  variant?: string;
+  variantValue?: unknown;
 }
 
 export interface EvaluationResponse {
   flags: Record<string, boolean>;
   details: Record<string, EvaluationDetail>;
+  variants?: Record<string, string>;
+  environment: string;
+  snapshotVersion: number;
+  stale: boolean;
 }
 
 export interface TimeSeriesPoint {
@@ -78,9 +189,78 @@ export interface Analytics {
   enabledCount: number;
   disabledCount: number;
   enabledPercentage: number;
+  uniqueUsers: number;
+  uniqueEnabledUsers: number;
+  // Later than the window when it is longer than unique-user retention
+  uniqueUsersSince: string;
   configuredRolloutPercentage: number;
+  resolution: 'MINUTE' | 'HOUR' | 'DAY';
   evaluationsOverTime: TimeSeriesPoint[];
   evaluationsByReason: Record<string, number>;
+  evaluationsByVariant: Record<string, number>;
+}
+
+export interface FlagAnalyticsSummary {
+  flagId: string;
+  flagName: string;
+  enabled: boolean;
+  totalEvaluations: number;
+  enabledCount: number;
+  disabledCount: number;
+  enabledPercentage: number;
+  lastEvaluatedAt: string | null;
+}
+
+export interface AnalyticsSummary {
+  environment: string;
+  hours: number;
+  since: string;
+  resolution: 'MINUTE' | 'HOUR' | 'DAY';
+  generatedAt: string;
+  flags: FlagAnalyticsSummary[];
+}
+
+export interface LiveFlagCount {
+  flagId: string;
+  enabledCount: number;
+  disabledCount: number;
+}
+
+export interface LiveAnalyticsEvent {
+  timestamp: string;
+  flagId?: string;
+  totalCount: number;
+  enabledCount: number;
+  disabledCount: number;
+  flags?: LiveFlagCount[];
+}
+
+export interface HeavyHitter {
+  flagId?: string;
+  flagName?: string;
+  userId?: string;
+  count: number;
+  maxError: number;
+  share: number;
+}
+
+export interface HeavyHitters {
+  windowMinutes: number;
+  since: string;
+  totalEvaluations: number;
+  flags: HeavyHitter[];
+  users: HeavyHitter[];
+  flagUsers: HeavyHitter[];
+}
+
+export interface Segment {
+  id: string;
+  name: string;
+  description: string | null;
+  memberCount: number;
+  membersVersion: number;
+  createdAt: string;
+  updatedAt: string;
 }
 
 export interface ApiResponse<T> {